@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.Console;
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleMark;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.api.Description;
+import org.neverfear.jint.api.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Compares waiting for a literal on stdout by decoding it into lines against
+ * scanning its bytes directly. Run with
+ * 
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec
+ * </pre>
+ * 
+ * and add -prof gc to the benchmark arguments to compare the garbage created.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConsoleWaitStrategyBenchmark {
+
+	private static final String READY = "Server started on port 8080";
+
+	@Param({ "1000", "50000" })
+	public int lines;
+
+	private byte[] output;
+	private StubApplication application;
+
+	private ConsoleWaitStrategy lineStrategy;
+	private ConsoleWaitStrategy byteStrategy;
+
+	@Setup
+	public void setup() {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final PrintWriter writer = new PrintWriter(buffer);
+		for (int line = 0; line < this.lines; line++) {
+			writer.println("2014-06-01 12:00:00,000 INFO  [main] org.example.Loader - Loaded resource " + line);
+		}
+		writer.println("2014-06-01 12:00:01,000 INFO  [main] org.example.Server - " + READY);
+		writer.close();
+
+		this.output = buffer.toByteArray();
+		this.application = new StubApplication();
+
+		final Pattern pattern = Pattern.compile(READY);
+		this.lineStrategy = new ConsoleWaitStrategy(pattern,
+				false);
+		this.byteStrategy = new ConsoleWaitStrategy(pattern,
+				true);
+	}
+
+	@Benchmark
+	public void lines() throws Exception {
+		this.lineStrategy.waitFor(this.application);
+	}
+
+	@Benchmark
+	public void bytes() throws Exception {
+		this.byteStrategy.waitFor(this.application);
+	}
+
+	/**
+	 * A running application whose stdout is the prepared output.
+	 */
+	private final class StubApplication
+		implements Application, Console {
+
+		@Override
+		public InputStream output() {
+			return new ByteArrayInputStream(ConsoleWaitStrategyBenchmark.this.output);
+		}
+
+		@Override
+		public InputStream error() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ConsoleMark mark() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public InputStream output(final ConsoleMark mark) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public InputStream error(final ConsoleMark mark) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ConsoleSubscription subscribeOutput(final ConsoleListener listener) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ConsoleSubscription subscribeError(final ConsoleListener listener) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public OutputStream input() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() {
+			// Nothing to close
+		}
+
+		@Override
+		public Console console() {
+			return this;
+		}
+
+		@Override
+		public Location location() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void start() throws ApplicationException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void stop() throws ApplicationException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int exitCode() {
+			throw new IllegalStateException();
+		}
+
+		@Override
+		public ListenableFuture<Integer> termination() {
+			return SettableFuture.create();
+		}
+
+		@Override
+		public boolean isRunning() {
+			return true;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return true;
+		}
+
+		@Override
+		public void awaitStart() {
+			// Already started
+		}
+
+		@Override
+		public void awaitStart(final long timeout, final TimeUnit unit) {
+			// Already started
+		}
+
+		@Override
+		public void awaitStop() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Description description() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.neverfear.jint.api;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Nonnull;
 
 public interface Application
@@ -29,6 +31,18 @@ public interface Application
 	 */
 	void awaitStart() throws InterruptedException, ApplicationException;
 
+	/**
+	 * Blocks until either the handle has started, the timeout elapses or the
+	 * current thread is interrupted.
+	 * 
+	 * @param timeout the longest to wait
+	 * @param unit the unit of timeout
+	 * @throws InterruptedException
+	 * @throws ApplicationTimeoutException if the timeout elapses first
+	 * @throws ApplicationException
+	 */
+	void awaitStart(long timeout, TimeUnit unit) throws InterruptedException, ApplicationException;
+
 	/**
 	 * Blocks until either the handle has stopped or the current thread is
 	 * interrupted.
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+/**
+ * An application exited while it was expected to be running, such as while
+ * waiting for it to start.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class ApplicationExitedException
+	extends ApplicationException {
+
+	private static final long serialVersionUID = -2984417094652035315L;
+
+	private final int exitCode;
+
+	/**
+	 * @param message the message
+	 * @param exitCode the exit code of the application
+	 */
+	public ApplicationExitedException(final String message, final int exitCode) {
+		super(message);
+		this.exitCode = exitCode;
+	}
+
+	/**
+	 * @return the exit code of the application
+	 */
+	public int exitCode() {
+		return this.exitCode;
+	}
+}
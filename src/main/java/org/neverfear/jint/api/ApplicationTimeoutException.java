@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * An application did not start, or stop, before a deadline. Where the wait
+ * involved polling a health check the duration of each attempt is recorded.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class ApplicationTimeoutException
+	extends ApplicationException {
+
+	private static final long serialVersionUID = 4581022547390271372L;
+
+	private final long timeoutNanos;
+	private final List<Long> attemptNanos;
+
+	public ApplicationTimeoutException(final String message, final long timeout, final TimeUnit unit) {
+		this(message,
+				timeout,
+				unit,
+				Collections.<Long> emptyList());
+	}
+
+	/**
+	 * 
+	 * @param message the message
+	 * @param timeout the timeout that elapsed
+	 * @param unit the unit of timeout
+	 * @param attemptNanos how long each attempt took in nanoseconds, in order
+	 */
+	public ApplicationTimeoutException(final String message,
+			final long timeout,
+			final TimeUnit unit,
+			final List<Long> attemptNanos) {
+		super(message + " within " + unit.toMillis(timeout) + "ms" + summarise(attemptNanos));
+		this.timeoutNanos = unit.toNanos(timeout);
+		this.attemptNanos = ImmutableList.copyOf(attemptNanos);
+	}
+
+	/**
+	 * @return the timeout that elapsed
+	 */
+	public long timeout(final TimeUnit unit) {
+		return unit.convert(this.timeoutNanos, NANOSECONDS);
+	}
+
+	/**
+	 * @return how long each attempt took in nanoseconds, in order, or empty if
+	 *         the wait did not poll.
+	 */
+	public List<Long> attemptNanos() {
+		return this.attemptNanos;
+	}
+
+	private static String summarise(final List<Long> attemptNanos) {
+		if (attemptNanos.isEmpty()) {
+			return "";
+		}
+		long total = 0;
+		long slowest = 0;
+		final StringBuilder millis = new StringBuilder();
+		for (final Long nanos : attemptNanos) {
+			total += nanos;
+			slowest = Math.max(slowest, nanos);
+			if (millis.length() > 0) {
+				millis.append(", ");
+			}
+			millis.append(NANOSECONDS.toMillis(nanos));
+		}
+		return " after " + attemptNanos.size() + " attempts taking " + NANOSECONDS.toMillis(total)
+				+ "ms in total, the slowest " + NANOSECONDS.toMillis(slowest) + "ms: [" + millis + "] ms";
+	}
+}
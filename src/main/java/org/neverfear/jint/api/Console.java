@@ -39,6 +39,57 @@ public interface Console
 	@Nonnull
 	InputStream error() throws IOException;
 
+	/**
+	 * Records how much has been written to standard output and standard error
+	 * so far.
+	 * 
+	 * @return a mark at the current end of the console.
+	 */
+	@Nonnull
+	ConsoleMark mark();
+
+	/**
+	 * @param mark a mark previously returned by {@link #mark()}
+	 * @return a {@link InputStream} that represents standard output from the
+	 *         mark onwards.
+	 * @throws IOException
+	 */
+	@Nonnull
+	InputStream output(@Nonnull ConsoleMark mark) throws IOException;
+
+	/**
+	 * @param mark a mark previously returned by {@link #mark()}
+	 * @return a {@link InputStream} that represents standard error from the
+	 *         mark onwards.
+	 * @throws IOException
+	 */
+	@Nonnull
+	InputStream error(@Nonnull ConsoleMark mark) throws IOException;
+
+	/**
+	 * Pushes standard output to a listener, starting with everything captured
+	 * so far and continuing as more is captured.
+	 * 
+	 * @param listener the listener
+	 * @return the subscription, to be closed once the listener is no longer
+	 *         interested.
+	 * @throws IOException
+	 */
+	@Nonnull
+	ConsoleSubscription subscribeOutput(@Nonnull ConsoleListener listener) throws IOException;
+
+	/**
+	 * Pushes standard error to a listener, starting with everything captured so
+	 * far and continuing as more is captured.
+	 * 
+	 * @param listener the listener
+	 * @return the subscription, to be closed once the listener is no longer
+	 *         interested.
+	 * @throws IOException
+	 */
+	@Nonnull
+	ConsoleSubscription subscribeError(@Nonnull ConsoleListener listener) throws IOException;
+
 	/**
 	 * @return a {@link OutputStream} that represents standard input.
 	 * @throws IOException
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+/**
+ * Receives the content of a console stream as it is captured, see
+ * {@link Console#subscribeOutput(ConsoleListener)}. Callbacks are made on the
+ * thread that captures the stream, which is shared with every other listener,
+ * so implementations must return promptly and must not block.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public interface ConsoleListener {
+
+	/**
+	 * Called with each chunk of the stream in order. The buffer is reused once
+	 * this returns, so implementations must copy anything they wish to keep.
+	 * 
+	 * @param buffer the buffer holding the chunk
+	 * @param offset the offset of the chunk in buffer
+	 * @param length the length of the chunk
+	 */
+	void onData(byte[] buffer, int offset, int length);
+
+	/**
+	 * Called once the stream has ended. No further calls are made.
+	 */
+	void onEndOfFile();
+}
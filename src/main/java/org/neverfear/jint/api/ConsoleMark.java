@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+/**
+ * A point in the history of a {@link Console}, recorded by
+ * {@link Console#mark()}. Streams opened at a mark only see output produced
+ * after it.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class ConsoleMark {
+
+	/**
+	 * The start of the console.
+	 */
+	public static final ConsoleMark START = new ConsoleMark(0,
+			0);
+
+	private final long outputPosition;
+	private final long errorPosition;
+
+	/**
+	 * 
+	 * @param outputPosition the number of bytes written to standard output
+	 * @param errorPosition the number of bytes written to standard error
+	 */
+	public ConsoleMark(final long outputPosition, final long errorPosition) {
+		if (outputPosition < 0 || errorPosition < 0) {
+			throw new IllegalArgumentException("Positions cannot be negative");
+		}
+		this.outputPosition = outputPosition;
+		this.errorPosition = errorPosition;
+	}
+
+	/**
+	 * @return the number of bytes written to standard output before the mark.
+	 */
+	public long outputPosition() {
+		return this.outputPosition;
+	}
+
+	/**
+	 * @return the number of bytes written to standard error before the mark.
+	 */
+	public long errorPosition() {
+		return this.errorPosition;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (this.errorPosition ^ (this.errorPosition >>> 32));
+		result = prime * result + (int) (this.outputPosition ^ (this.outputPosition >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final ConsoleMark other = (ConsoleMark) obj;
+		if (this.errorPosition != other.errorPosition) {
+			return false;
+		}
+		if (this.outputPosition != other.outputPosition) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [outputPosition=" + this.outputPosition + ", errorPosition="
+				+ this.errorPosition + "]";
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+/**
+ * How the standard output and error of an application are captured for its
+ * {@link Console}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public enum ConsoleMode {
+
+	/**
+	 * The streams are piped back to this JVM and copied into capture files by a
+	 * background task.
+	 */
+	PIPED,
+
+	/**
+	 * The process writes its streams directly into the capture files, so no
+	 * copying happens within this JVM. Readers tail the files and detect the end
+	 * of file by the process exiting.
+	 */
+	REDIRECTED,
+
+	/**
+	 * The streams are piped back to this JVM and held in memory. Only the most
+	 * recent output is kept in memory, older output is spilled to disk.
+	 */
+	MEMORY;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.api;
+
+import java.io.Closeable;
+
+/**
+ * A {@link ConsoleListener} registered with a {@link Console}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public interface ConsoleSubscription
+	extends Closeable {
+
+	/**
+	 * Stops further callbacks to the listener. A callback already in progress
+	 * may still complete.
+	 */
+	@Override
+	void close();
+}
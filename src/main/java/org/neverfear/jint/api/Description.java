@@ -68,4 +68,13 @@ public interface Description {
 	 */
 	boolean isIOInherited();
 
+	/**
+	 * How the console of the application is captured. Ignored when IO is
+	 * inherited.
+	 * 
+	 * @return the console mode.
+	 */
+	@Nonnull
+	ConsoleMode consoleMode();
+
 }
\ No newline at end of file
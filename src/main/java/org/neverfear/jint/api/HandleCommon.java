@@ -17,6 +17,8 @@ package org.neverfear.jint.api;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * Methods common to applications and handles. This is to avoid duplication
  * while avoiding {@link Application} extending {@link Handle}
@@ -71,6 +73,17 @@ interface HandleCommon {
 	 */
 	int exitCode() throws IllegalStateException;
 
+	/**
+	 * Completes with the exit code once the handle exits after its most recent
+	 * start. This allows waiting on the handle to be abandoned as soon as it
+	 * exits rather than noticing only when {@link #isRunning()} is next polled.
+	 * 
+	 * @return a future completed when the handle exits
+	 * @throws IllegalStateException if the handle has never been started.
+	 */
+	@Nonnull
+	ListenableFuture<Integer> termination() throws IllegalStateException;
+
 	/**
 	 * May be used to determine if the handle is still running.
 	 * 
@@ -15,6 +15,7 @@
  */
 package org.neverfear.jint.api;
 
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementors should block until the process is successfully running.
@@ -31,4 +32,15 @@ public interface WaitStrategy {
 	 * @throw ApplicationException
 	 */
 	void waitFor(final Application application) throws InterruptedException, ApplicationException;
+
+	/**
+	 * Block until this process is successfully running, or the timeout
+	 * elapses.
+	 * 
+	 * @throw InterruptedException
+	 * @throw ApplicationTimeoutException if the timeout elapses first
+	 * @throw ApplicationException
+	 */
+	void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException;
 }
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.application;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Represents a group of applications that are started and stopped together
+ * according to what each depends on. For example:
+ * 
+ * <pre>
+ * DependencyGroup group = DependencyGroup.create()
+ * 		.add(database)
+ * 		.add(cache)
+ * 		.add(service, database)
+ * 		.add(gateway, service, cache);
+ * group.start();
+ * </pre>
+ * 
+ * Unlike the phases of a {@link Group}, each application is started as soon as
+ * the applications it depends on have started, however long the others take.
+ * In the above example the service starts once the database has started, even
+ * if the cache is still starting. Applications are stopped in reverse: each
+ * once every application that depends on it has stopped.
+ * 
+ * An application may only depend on applications already added, so there can
+ * be no cycles. If any application fails to start, or crashes before all have
+ * started, the others that are starting are interrupted and all those started
+ * are stopped.
+ * 
+ * @author doug@neverfear.org
+ */
+public final class DependencyGroup {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGroup.class);
+
+	/**
+	 * In the order added, so each application comes after its dependencies.
+	 */
+	private final Map<Application, List<Application>> dependencies = new LinkedHashMap<>();
+	private int parallelism = Integer.MAX_VALUE;
+
+	private DependencyGroup() {
+		super();
+	}
+
+	public static DependencyGroup create() {
+		return new DependencyGroup();
+	}
+
+	/**
+	 * @param application the application to add
+	 * @param dependencies applications already added that must start before
+	 *        this one and stop after it
+	 * @return
+	 */
+	public DependencyGroup add(final Application application, final Application... dependencies) {
+		checkNotNull(application, "application cannot be null");
+		checkArgument(!this.dependencies.containsKey(application), "%s has already been added", application);
+		for (final Application dependency : dependencies) {
+			checkArgument(this.dependencies.containsKey(dependency),
+				"%s must be added before %s which depends on it",
+				dependency,
+				application);
+		}
+		this.dependencies.put(application,
+			ImmutableList.copyOf(dependencies));
+		return this;
+	}
+
+	/**
+	 * Starts or stops up to this many applications at once. By default every
+	 * application whose dependencies are satisfied is started at once.
+	 * 
+	 * @param parallelism the most applications to start or stop at once
+	 * @return
+	 */
+	public DependencyGroup parallel(final int parallelism) {
+		checkArgument(parallelism >= 1, "parallelism must be at least 1");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Starts every application once its dependencies have started. This
+	 * operation is all-or-nothing. This method blocks until all applications
+	 * have reached a started state.
+	 * 
+	 * @return
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public DependencyGroup start() throws ApplicationException, InterruptedException {
+		return start((Deadline) null);
+	}
+
+	/**
+	 * Starts the applications, as {@link #start()}, but gives up and cleanly
+	 * stops any applications started if they have not all reached a started
+	 * state within the timeout.
+	 * 
+	 * @param timeout the longest to wait for the whole group
+	 * @param unit the unit of timeout
+	 * @return
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public DependencyGroup start(final long timeout, final TimeUnit unit) throws ApplicationException,
+			InterruptedException {
+		return start(Deadline.after(timeout,
+			unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private DependencyGroup start(final Deadline deadline) throws ApplicationException, InterruptedException {
+		final Set<Application> started = Collections.synchronizedSet(Sets.<Application> newHashSet());
+		final ListeningExecutorService executor = Groups.newExecutor(threads());
+		final ExitWatch exits = new ExitWatch(Thread.currentThread());
+
+		final Map<Application, ListenableFuture<Application>> ready = new LinkedHashMap<>();
+		try {
+			for (final Map.Entry<Application, List<Application>> entry : this.dependencies.entrySet()) {
+				final Application application = entry.getKey();
+				final List<ListenableFuture<Application>> dependenciesReady = new ArrayList<>();
+				for (final Application dependency : entry.getValue()) {
+					dependenciesReady.add(ready.get(dependency));
+				}
+
+				ready.put(application,
+					Futures.transform(Futures.allAsList(dependenciesReady),
+						new AsyncFunction<List<Application>, Application>() {
+
+							@Override
+							public ListenableFuture<Application> apply(final List<Application> input) {
+								return executor.submit(new Start(application,
+										deadline,
+										started,
+										exits));
+							}
+						}));
+			}
+
+			final ListenableFuture<List<Application>> all = Futures.allAsList(ready.values());
+			if (deadline == null) {
+				all.get();
+			} else {
+				all.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (ExecutionException | TimeoutException | InterruptedException e) {
+			// An exit is the real failure, whatever it interrupted
+			final ApplicationException exited = exits.cancel();
+
+			// No application may still be starting once clean up begins
+			executor.shutdownNow();
+			Groups.awaitTerminationUninterruptibly(executor);
+
+			final Exception failure;
+			if (exited != null) {
+				failure = exited;
+			} else if (e instanceof ExecutionException) {
+				failure = new ApplicationException(e.getCause());
+			} else if (e instanceof TimeoutException) {
+				failure = new ApplicationTimeoutException("Applications did not start in time: " + notDone(ready),
+						deadline.timeoutNanos(),
+						TimeUnit.NANOSECONDS);
+			} else {
+				failure = e;
+			}
+
+			try {
+				stop(started);
+			} catch (final ApplicationException stopFailure) {
+				failure.addSuppressed(stopFailure);
+			}
+
+			if (failure instanceof InterruptedException) {
+				throw (InterruptedException) failure;
+			}
+			throw (ApplicationException) failure;
+		} finally {
+			exits.cancel();
+			executor.shutdown();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Stops every application once those that depend on it have stopped. If
+	 * any application fails to stop it is treated as stopped so that those it
+	 * depends on are still stopped. This method blocks until all applications
+	 * have reached a stopped state.
+	 * 
+	 * @return
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public DependencyGroup stop() throws ApplicationException, InterruptedException {
+		stop(this.dependencies.keySet());
+		return this;
+	}
+
+	private void stop(final Collection<Application> toStop) throws ApplicationException, InterruptedException {
+		final Map<Application, List<Application>> dependents = dependents();
+		final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+		final ListeningExecutorService executor = Groups.newExecutor(threads());
+
+		try {
+			final Map<Application, ListenableFuture<Void>> stopped = new LinkedHashMap<>();
+			for (final Application application : Lists.reverse(new ArrayList<>(this.dependencies.keySet()))) {
+				if (!toStop.contains(application)) {
+					// Nothing that depends on it can have been started either
+					stopped.put(application,
+						Futures.<Void> immediateFuture(null));
+					continue;
+				}
+
+				final List<ListenableFuture<Void>> dependentsStopped = new ArrayList<>();
+				for (final Application dependent : dependents.get(application)) {
+					dependentsStopped.add(stopped.get(dependent));
+				}
+
+				stopped.put(application,
+					Futures.transform(Futures.successfulAsList(dependentsStopped),
+						new AsyncFunction<List<Void>, Void>() {
+
+							@Override
+							public ListenableFuture<Void> apply(final List<Void> input) {
+								return executor.submit(new Stop(application,
+										failures));
+							}
+						}));
+			}
+
+			Futures.successfulAsList(stopped.values())
+					.get();
+		} catch (final ExecutionException e) {
+			// Cannot happen as failures are collected rather than thrown
+			throw new AssertionError(e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		ApplicationException exception = null;
+		for (final Exception failure : failures) {
+			if (exception == null) {
+				exception = new ApplicationException(failure);
+			} else {
+				exception.addSuppressed(failure);
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	/**
+	 * Awaits the natural stop of all applications in this group.
+	 * 
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public void awaitStop() throws InterruptedException, ApplicationException {
+		for (final Application application : this.dependencies.keySet()) {
+			application.awaitStop();
+		}
+	}
+
+	private int threads() {
+		return Math.max(1,
+			Math.min(this.parallelism,
+				this.dependencies.size()));
+	}
+
+	private Map<Application, List<Application>> dependents() {
+		final Map<Application, List<Application>> dependents = new LinkedHashMap<>();
+		for (final Application application : this.dependencies.keySet()) {
+			dependents.put(application,
+				new ArrayList<Application>());
+		}
+		for (final Map.Entry<Application, List<Application>> entry : this.dependencies.entrySet()) {
+			for (final Application dependency : entry.getValue()) {
+				dependents.get(dependency)
+						.add(entry.getKey());
+			}
+		}
+		return dependents;
+	}
+
+	private static List<Application> notDone(final Map<Application, ListenableFuture<Application>> ready) {
+		final List<Application> notDone = new ArrayList<>();
+		for (final Map.Entry<Application, ListenableFuture<Application>> entry : ready.entrySet()) {
+			if (!entry.getValue()
+					.isDone()) {
+				notDone.add(entry.getKey());
+			}
+		}
+		return notDone;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [dependencies=" + this.dependencies + "]";
+	}
+
+	private static final class Start
+		implements Callable<Application> {
+
+		private final Application application;
+		private final Deadline deadline;
+		private final Set<Application> started;
+		private final ExitWatch exits;
+
+		Start(final Application application,
+				final Deadline deadline,
+				final Set<Application> started,
+				final ExitWatch exits) {
+			this.application = application;
+			this.deadline = deadline;
+			this.started = started;
+			this.exits = exits;
+		}
+
+		@Override
+		public Application call() throws Exception {
+			try {
+				LOGGER.debug("Initiating start {}", this.application);
+				this.application.start();
+				this.started.add(this.application);
+				this.exits.watch(this.application);
+				LOGGER.debug("Start initiated {}", this.application);
+
+				Groups.awaitStart(this.application,
+					this.deadline);
+				return this.application;
+			} catch (final Exception e) {
+				if (LOGGER.isErrorEnabled()) {
+					LOGGER.error("Failed to start " + this.application, e);
+				}
+				throw e;
+			}
+		}
+	}
+
+	private static final class Stop
+		implements Callable<Void> {
+
+		private final Application application;
+		private final List<Exception> failures;
+
+		Stop(final Application application, final List<Exception> failures) {
+			this.application = application;
+			this.failures = failures;
+		}
+
+		@Override
+		public Void call() {
+			try {
+				LOGGER.debug("Initiating stop {}", this.application);
+				this.application.stop();
+				LOGGER.debug("Awaiting stop of {}", this.application);
+				this.application.awaitStop();
+				LOGGER.debug("Stopped {}", this.application);
+			} catch (final Exception e) {
+				if (LOGGER.isErrorEnabled()) {
+					LOGGER.error("Failed to stop " + this.application, e);
+				}
+				this.failures.add(e);
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.application;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationExitedException;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Watches the {@link Application#termination() termination} of every
+ * application a group has started, and interrupts the thread starting the
+ * group as soon as any of them crashes. That thread is then expected to give
+ * up on the applications still starting rather than notice the crash only
+ * once it gets round to awaiting the application that crashed. An exit code
+ * of 0 is not a crash, so a one-shot application such as one that sets up a
+ * database may exit while the rest of the group starts.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class ExitWatch {
+
+	private final Thread thread;
+
+	private boolean cancelled = false;
+	private ApplicationExitedException exited = null;
+
+	/**
+	 * @param thread the thread starting the group
+	 */
+	ExitWatch(final Thread thread) {
+		this.thread = thread;
+	}
+
+	/**
+	 * Must be called after the application is started, as the termination
+	 * watched is that of its current run.
+	 */
+	void watch(final Application application) {
+		Futures.addCallback(application.termination(),
+			new FutureCallback<Integer>() {
+
+				@Override
+				public void onSuccess(final Integer exitCode) {
+					if (exitCode != 0) {
+						exited(application,
+							exitCode);
+					}
+				}
+
+				@Override
+				public void onFailure(final Throwable t) {
+					// Exit unknown, so leave it to the application's own wait
+				}
+			},
+			MoreExecutors.sameThreadExecutor());
+	}
+
+	private synchronized void exited(final Application application, final int exitCode) {
+		if (!this.cancelled && this.exited == null) {
+			this.exited = new ApplicationExitedException(application + " exited with code " + exitCode
+					+ " while the group was starting",
+					exitCode);
+			this.thread.interrupt();
+		}
+	}
+
+	/**
+	 * Must be called by the thread starting the group. If an application has
+	 * exited the interrupt it caused is cleared. May be called more than once.
+	 * 
+	 * @return the first crash seen, otherwise null
+	 */
+	synchronized ApplicationExitedException cancel() {
+		if (!this.cancelled) {
+			this.cancelled = true;
+			if (this.exited != null) {
+				Thread.interrupted();
+			}
+		}
+		return this.exited;
+	}
+}
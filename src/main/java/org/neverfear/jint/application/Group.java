@@ -15,6 +15,7 @@
  */
 package org.neverfear.jint.application;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static org.neverfear.jint.util.CollectionUtil.varargToList;
@@ -22,14 +23,25 @@ import static org.neverfear.jint.util.CollectionUtil.varargToList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationExitedException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.util.Deadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Represents a group of applications that are started and stopped together.
@@ -64,6 +76,8 @@ public final class Group {
 
 	private final List<Collection<Application>> phases = Lists.newArrayList();
 	private int size;
+	private int parallelism = 1;
+	private volatile Timeline timeline;
 
 	private Group(final List<Application> applications) {
 		this.size = applications.size();
@@ -88,132 +102,488 @@ public final class Group {
 		return this;
 	}
 
+	/**
+	 * Starts and awaits the start of up to this many applications of a phase at
+	 * once, so a phase takes as long as its slowest application rather than
+	 * the sum of them all. The default of 1 starts them one after another.
+	 * Phases are still started in order, and should any application fail the
+	 * others are interrupted and all those started are stopped in reverse
+	 * order.
+	 * 
+	 * @param parallelism the most applications to start at once
+	 * @return
+	 */
+	public Group parallel(final int parallelism) {
+		checkArgument(parallelism >= 1, "parallelism must be at least 1");
+		this.parallelism = parallelism;
+		return this;
+	}
+
 	/**
 	 * Starts the application group in order. This operation is all-or-nothing.
 	 * If any application fails to start, then any applications that were
 	 * successfully will be cleanly stopped in reverse order.This method blocks
 	 * until all applications have reached a started state.
 	 * 
+	 * Should any application started crash, exiting with a code other than 0,
+	 * before the whole group has started, those still starting are interrupted
+	 * and the group rolled back at once with an
+	 * {@link ApplicationExitedException} naming the application.
+	 * 
 	 * @return
 	 * @throws ApplicationException
 	 * @throws InterruptedException
 	 */
 	public Group start() throws ApplicationException, InterruptedException {
+		return start((Deadline) null);
+	}
+
+	/**
+	 * Starts the application group in order, as {@link #start()}, but gives up
+	 * and cleanly stops any applications started if they have not all reached
+	 * a started state within the timeout. Stopping them is bounded as
+	 * {@link #stop(long, TimeUnit)} by what remains of the timeout or, once it
+	 * has passed, by the timeout again, so this returns within about twice the
+	 * timeout.
+	 * 
+	 * @param timeout the longest to wait for the whole group
+	 * @param unit the unit of timeout
+	 * @return
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public Group start(final long timeout, final TimeUnit unit) throws ApplicationException, InterruptedException {
+		return start(Deadline.after(timeout,
+			unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private Group start(final Deadline deadline) throws ApplicationException, InterruptedException {
 		final List<Collection<Application>> startOrderPhases = calculateOrderOfStartPhases();
 
 		final List<Application> successfulInReverse = newArrayListWithCapacity(this.size);
-		Application current = null;
+		final ListeningExecutorService executor = this.parallelism > 1 ? Groups.newExecutor(this.parallelism) : null;
+		final ExitWatch exits = new ExitWatch(Thread.currentThread());
+		final Timeline timeline = new Timeline(this.phases,
+				this.parallelism > 1);
+		this.timeline = timeline;
 
 		try {
 
 			for (final Collection<Application> phase : startOrderPhases) {
+				if (executor == null) {
+					startInOrder(phase,
+						deadline,
+						successfulInReverse,
+						exits,
+						timeline);
+				} else {
+					startConcurrently(phase,
+						deadline,
+						successfulInReverse,
+						executor,
+						exits,
+						timeline);
+				}
+			}
 
-				for (final Application application : phase) {
-					current = application;
+		} catch (final Exception e) {
+			// An exit is the real failure, whatever it interrupted
+			final ApplicationException exited = exits.cancel();
 
-					LOGGER.debug("Initiating start {}", application);
-					application.start();
-					successfulInReverse.add(0, application);
-					LOGGER.debug("Start initiated {}", application);
-				}
+			if (executor != null) {
+				// No application may still be starting once clean up begins
+				executor.shutdownNow();
+				Groups.awaitTerminationUninterruptibly(executor);
+			}
 
-				for (final Application application : phase) {
-					current = application;
+			final Exception failure;
+			if (exited != null) {
+				failure = exited;
+			} else if (e instanceof InterruptedException) {
+				failure = e;
+			} else {
+				failure = new ApplicationException(e);
+			}
 
-					LOGGER.debug("Awaiting start of {}", application);
-					application.awaitStart();
-					LOGGER.debug("Started {}", application);
-				}
+			// Clean up all those applications that was started.
+			try {
+				stop(startedPhasesInStopOrder(successfulInReverse),
+					rollbackDeadline(deadline),
+					timeline);
+			} catch (final ApplicationException stopFailure) {
+				failure.addSuppressed(stopFailure);
+			}
 
+			if (failure instanceof InterruptedException) {
+				throw (InterruptedException) failure;
 			}
+			throw (ApplicationException) failure;
+		} finally {
+			exits.cancel();
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
 
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("{}", timeline.report());
+		}
+		return this;
+	}
+
+	/**
+	 * @param deadline the deadline of the start, null if there is none
+	 * @return the deadline to stop the started applications by
+	 */
+	private static Deadline rollbackDeadline(final Deadline deadline) {
+		if (deadline == null || !deadline.hasExpired()) {
+			return deadline;
+		}
+		return Deadline.after(deadline.timeoutNanos(),
+			TimeUnit.NANOSECONDS);
+	}
+
+	private static void startInOrder(final Collection<Application> phase,
+			final Deadline deadline,
+			final List<Application> successfulInReverse,
+			final ExitWatch exits,
+			final Timeline timeline) throws Exception {
+		Application current = null;
+		try {
+			for (final Application application : phase) {
+				current = application;
+
+				LOGGER.debug("Initiating start {}", application);
+				timeline.startInitiated(application);
+				application.start();
+				successfulInReverse.add(0, application);
+				exits.watch(application);
+				LOGGER.debug("Start initiated {}", application);
+			}
+
+			for (final Application application : phase) {
+				current = application;
+				Groups.awaitStart(application,
+					deadline);
+				timeline.ready(application);
+			}
 		} catch (final Exception e) {
 			if (LOGGER.isErrorEnabled()) {
 				LOGGER.error("Failed to start " + current, e);
 			}
+			throw e;
+		}
+	}
 
-			// Clean up all those applications that was started.
-			stop(successfulInReverse);
+	/**
+	 * Starts and awaits every application of the phase at once, each on a
+	 * thread of the executor. The first failure is thrown as soon as it
+	 * happens, leaving the caller to stop the others.
+	 */
+	private static void startConcurrently(final Collection<Application> phase,
+			final Deadline deadline,
+			final List<Application> successfulInReverse,
+			final ListeningExecutorService executor,
+			final ExitWatch exits,
+			final Timeline timeline) throws Exception {
+		final List<ListenableFuture<Application>> starts = newArrayListWithCapacity(phase.size());
+		for (final Application application : phase) {
+			starts.add(executor.submit(new Callable<Application>() {
+
+				@Override
+				public Application call() throws Exception {
+					try {
+						LOGGER.debug("Initiating start {}", application);
+						timeline.startInitiated(application);
+						application.start();
+						synchronized (successfulInReverse) {
+							successfulInReverse.add(0, application);
+						}
+						exits.watch(application);
+						LOGGER.debug("Start initiated {}", application);
+
+						Groups.awaitStart(application,
+							deadline);
+						timeline.ready(application);
+						return application;
+					} catch (final Exception e) {
+						if (LOGGER.isErrorEnabled()) {
+							LOGGER.error("Failed to start " + application, e);
+						}
+						throw e;
+					}
+				}
+			}));
+		}
 
-			if (e instanceof InterruptedException) {
-				throw e;
-			} else {
-				throw new ApplicationException(e);
+		try {
+			Futures.allAsList(starts)
+					.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
 			}
+			throw new ApplicationException(cause);
 		}
-
-		return this;
 	}
 
 	/**
-	 * Stops the application group in reverse order. If any application fails to
-	 * stop it will be skipped and the next application tried. This method
-	 * blocks until all applications have reached a stopped state.
+	 * Stops the application group in reverse order. The applications of a
+	 * phase are stopped at once, so a phase takes as long as its slowest
+	 * application to stop. If any application fails to stop it will be skipped
+	 * and the others still stopped. This method blocks until all applications
+	 * have reached a stopped state.
 	 * 
 	 * @return
 	 * @throws ApplicationException
 	 * @throws InterruptedException
 	 */
 	public Group stop() throws ApplicationException, InterruptedException {
-		ApplicationException exception = null;
+		return stop((Deadline) null);
+	}
 
-		final List<Collection<Application>> stopPhaseOrder = calculateOrderOfStopPhases();
+	/**
+	 * Stops the application group in reverse order, as {@link #stop()}, but
+	 * gives up if they have not all reached a stopped state within the timeout.
+	 * Those still stopping are interrupted, and the applications of any phases
+	 * not yet reached are still sent {@link Application#stop()} so none are
+	 * left running, but are not awaited. All of these are reported by an
+	 * {@link ApplicationTimeoutException} alongside any other failures.
+	 * 
+	 * @param timeout the longest to wait for the whole group
+	 * @param unit the unit of timeout
+	 * @return
+	 * @throws ApplicationException
+	 * @throws InterruptedException
+	 */
+	public Group stop(final long timeout, final TimeUnit unit) throws ApplicationException, InterruptedException {
+		return stop(Deadline.after(timeout,
+			unit));
+	}
 
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private Group stop(final Deadline deadline) throws ApplicationException, InterruptedException {
+		Timeline timeline = this.timeline;
+		if (timeline == null) {
+			timeline = new Timeline(this.phases,
+					this.parallelism > 1);
+			this.timeline = timeline;
+		}
+
+		stop(calculateOrderOfStopPhases(),
+			deadline,
+			timeline);
+		return this;
+	}
+
+	/**
+	 * @param stopPhaseOrder the phases to stop, in the order to stop them
+	 * @param deadline null to wait indefinitely
+	 */
+	private static void stop(final List<Collection<Application>> stopPhaseOrder,
+			final Deadline deadline,
+			final Timeline timeline) throws ApplicationException, InterruptedException {
+		ApplicationException exception = null;
+
+		int threads = 1;
 		for (final Collection<Application> phase : stopPhaseOrder) {
-			try {
-				stop(phase);
-			} catch (final Exception e) {
+			threads = Math.max(threads,
+				phase.size());
+		}
+		final ListeningExecutorService executor = Groups.newExecutor(threads);
+
+		try {
+			final List<Application> notStopped = new ArrayList<>();
+			for (final Collection<Application> phase : stopPhaseOrder) {
+				try {
+					if (notStopped.isEmpty()) {
+						stopConcurrently(phase,
+							deadline,
+							executor,
+							notStopped,
+							timeline);
+					} else {
+						// Out of time, but stopping is cheap and nothing must be left running
+						stopWithoutAwait(phase,
+							notStopped,
+							timeline);
+					}
+				} catch (final ApplicationException e) {
+					if (exception == null) {
+						exception = new ApplicationException(e);
+					} else {
+						exception.addSuppressed(e);
+					}
+				}
+			}
+
+			if (!notStopped.isEmpty()) {
+				final ApplicationTimeoutException timeout = new ApplicationTimeoutException("Applications did not stop in time: "
+						+ notStopped,
+						deadline.timeoutNanos(),
+						TimeUnit.NANOSECONDS);
 				if (exception == null) {
-					exception = new ApplicationException(e);
+					exception = new ApplicationException(timeout);
 				} else {
-					exception.addSuppressed(e);
+					exception.addSuppressed(timeout);
 				}
 			}
+		} finally {
+			executor.shutdownNow();
 		}
 
 		if (exception != null) {
 			throw exception;
 		}
-
-		return this;
 	}
 
-	private void stop(final Collection<Application> stopOrder) throws ApplicationException, InterruptedException {
+	/**
+	 * Stops every application of the phase one after another without awaiting
+	 * any of them, adding each to notStopped. Failures are reported in the
+	 * order of the phase.
+	 */
+	private static void stopWithoutAwait(final Collection<Application> phase,
+			final List<Application> notStopped,
+			final Timeline timeline) throws ApplicationException {
 		ApplicationException exception = null;
-
-		for (final Application application : stopOrder) {
-
+		for (final Application application : phase) {
 			try {
 				LOGGER.debug("Initiating stop {}", application);
+				timeline.stopInitiated(application);
 				application.stop();
 				LOGGER.debug("Stop initiated  {}", application);
 			} catch (final Exception e) {
 				if (LOGGER.isErrorEnabled()) {
 					LOGGER.error("Failed to stop " + application, e);
 				}
-
 				if (exception == null) {
 					exception = new ApplicationException(e);
 				} else {
 					exception.addSuppressed(e);
 				}
 			}
+			notStopped.add(application);
+		}
+
+		if (exception != null) {
+			throw exception;
+		}
+	}
 
+	/**
+	 * Stops and awaits every application of the phase at once, each on a
+	 * thread of the executor. Failures are reported in the order of the phase
+	 * rather than the order they happen, and any applications still stopping
+	 * at the deadline are interrupted and added to notStopped.
+	 */
+	private static void stopConcurrently(final Collection<Application> phase,
+			final Deadline deadline,
+			final ListeningExecutorService executor,
+			final List<Application> notStopped,
+			final Timeline timeline) throws ApplicationException, InterruptedException {
+		final List<ListenableFuture<Exception>> stops = newArrayListWithCapacity(phase.size());
+		for (final Application application : phase) {
+			stops.add(executor.submit(new Callable<Exception>() {
+
+				@Override
+				public Exception call() {
+					Exception failure = null;
+					try {
+						LOGGER.debug("Initiating stop {}", application);
+						timeline.stopInitiated(application);
+						application.stop();
+						LOGGER.debug("Stop initiated  {}", application);
+					} catch (final Exception e) {
+						if (LOGGER.isErrorEnabled()) {
+							LOGGER.error("Failed to stop " + application, e);
+						}
+						failure = e;
+					}
+
+					try {
+						LOGGER.debug("Awaiting stop of {}", application);
+						application.awaitStop();
+						timeline.stopped(application);
+						LOGGER.debug("Stopped {}", application);
+					} catch (final Exception e) {
+						if (failure == null) {
+							failure = e;
+						} else {
+							failure.addSuppressed(e);
+						}
+					}
+					return failure;
+				}
+			}));
 		}
 
-		awaitStop(stopOrder);
+		try {
+			// Failures are returned rather than thrown so this cannot fail early
+			final ListenableFuture<List<Exception>> all = Futures.allAsList(stops);
+			if (deadline == null) {
+				all.get();
+			} else {
+				all.get(Math.max(0, deadline.remainingNanos()),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (final ExecutionException e) {
+			throw new AssertionError(e);
+		} catch (final TimeoutException e) {
+			final Iterator<Application> applications = phase.iterator();
+			for (final ListenableFuture<Exception> stop : stops) {
+				final Application application = applications.next();
+				if (stop.cancel(true)) {
+					notStopped.add(application);
+				}
+			}
+		} catch (final InterruptedException e) {
+			for (final ListenableFuture<Exception> stop : stops) {
+				stop.cancel(true);
+			}
+			throw e;
+		}
+
+		ApplicationException exception = null;
+		for (final ListenableFuture<Exception> stop : stops) {
+			if (stop.isCancelled()) {
+				continue;
+			}
+			final Exception failure = Futures.getUnchecked(stop);
+			if (failure == null) {
+				continue;
+			}
+			if (exception == null) {
+				exception = new ApplicationException(failure);
+			} else {
+				exception.addSuppressed(failure);
+			}
+		}
 
 		if (exception != null) {
 			throw exception;
 		}
 	}
 
-	private void awaitStop(final Collection<Application> stopOrder) throws ApplicationException, InterruptedException {
-		for (final Application application : stopOrder) {
-			LOGGER.debug("Awaiting stop of {}", application);
-			application.awaitStop();
-			LOGGER.debug("Stopped {}", application);
+	/**
+	 * When each application was started, became ready and was stopped by the
+	 * most recent {@link #start()}, and any stop since. Useful to find which
+	 * applications hold up the start of the group.
+	 * 
+	 * @return a snapshot of the timings so far
+	 */
+	public GroupReport report() {
+		final Timeline timeline = this.timeline;
+		if (timeline == null) {
+			return new Timeline(this.phases,
+					this.parallelism > 1).report();
 		}
+		return timeline.report();
 	}
 
 	/**
@@ -234,6 +604,28 @@ public final class Group {
 		return this.phases;
 	}
 
+	/**
+	 * The phases in stop order, keeping only the applications that were
+	 * started.
+	 */
+	private List<Collection<Application>> startedPhasesInStopOrder(final Collection<Application> started) {
+		final List<Collection<Application>> stopPhaseOrder = newArrayList();
+		synchronized (started) {
+			for (final Collection<Application> phase : calculateOrderOfStopPhases()) {
+				final List<Application> startedOfPhase = newArrayList();
+				for (final Application application : phase) {
+					if (started.contains(application)) {
+						startedOfPhase.add(application);
+					}
+				}
+				if (!startedOfPhase.isEmpty()) {
+					stopPhaseOrder.add(startedOfPhase);
+				}
+			}
+		}
+		return stopPhaseOrder;
+	}
+
 	private List<Collection<Application>> calculateOrderOfStopPhases() {
 		final List<Collection<Application>> stopPhaseOrder = newArrayList(calculateOrderOfStartPhases());
 		Collections.reverse(stopPhaseOrder);
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.application;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neverfear.jint.api.Application;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * When each application of a {@link Group} was started, became ready and was
+ * stopped, in nanoseconds since the group began to start. As the applications
+ * of a phase are only started once every application of the previous phase
+ * is ready, the {@link #criticalPath() critical path} is the application of
+ * each phase that became ready last: starting any of those sooner is the only
+ * way to start the group sooner.
+ * 
+ * When a group starts one application at a time, the default, each is only
+ * seen to be ready once the group gets round to awaiting it, so every ready
+ * time is at least that of the application awaited before it. There is then
+ * no telling which application held up a phase, so there is no critical path
+ * unless the group was started with {@link Group#parallel(int)}.
+ * 
+ * The report can be exported as trace events, with
+ * {@link #toTraceEvents()}, to be viewed in a trace viewer such as
+ * chrome://tracing.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class GroupReport {
+
+	/**
+	 * The time of an event that has not happened.
+	 */
+	public static final long NOT_RECORDED = -1;
+
+	private final List<Timing> timings;
+	private final int phases;
+	private final boolean readinessMeasured;
+
+	/**
+	 * @param readinessMeasured whether each ready time is when the
+	 *        application became ready, rather than when it was next awaited
+	 */
+	GroupReport(final List<Timing> timings, final int phases, final boolean readinessMeasured) {
+		this.timings = ImmutableList.copyOf(timings);
+		this.phases = phases;
+		this.readinessMeasured = readinessMeasured;
+	}
+
+	/**
+	 * @return the timing of every application in the order they are started,
+	 *         phase by phase
+	 */
+	public List<Timing> timings() {
+		return this.timings;
+	}
+
+	/**
+	 * @return the timings of the applications of a phase
+	 */
+	public List<Timing> phase(final int phase) {
+		final List<Timing> timings = new ArrayList<>();
+		for (final Timing timing : this.timings) {
+			if (timing.phase() == phase) {
+				timings.add(timing);
+			}
+		}
+		return timings;
+	}
+
+	/**
+	 * @return the number of phases of the group
+	 */
+	public int phases() {
+		return this.phases;
+	}
+
+	/**
+	 * @return whether the {@link #criticalPath() critical path} is known,
+	 *         which needs the applications of each phase to have been awaited
+	 *         at once
+	 */
+	public boolean hasCriticalPath() {
+		return this.readinessMeasured;
+	}
+
+	/**
+	 * @return for each phase that became ready, in order, the timing of the
+	 *         application that became ready last, or empty unless
+	 *         {@link #hasCriticalPath()}
+	 */
+	public List<Timing> criticalPath() {
+		final List<Timing> criticalPath = new ArrayList<>();
+		if (!this.readinessMeasured) {
+			return criticalPath;
+		}
+		for (int phase = 0; phase < this.phases; phase++) {
+			Timing critical = null;
+			for (final Timing timing : phase(phase)) {
+				if (timing.readyNanos() == NOT_RECORDED) {
+					// The phase never became ready, so nor did any after it
+					return criticalPath;
+				}
+				if (critical == null || timing.readyNanos() > critical.readyNanos()) {
+					critical = timing;
+				}
+			}
+			if (critical != null) {
+				criticalPath.add(critical);
+			}
+		}
+		return criticalPath;
+	}
+
+	/**
+	 * @return how long the group took to become ready, or
+	 *         {@link #NOT_RECORDED} if it did not
+	 */
+	public long startNanos() {
+		long startNanos = 0;
+		for (final Timing timing : this.timings) {
+			if (timing.readyNanos() == NOT_RECORDED) {
+				return NOT_RECORDED;
+			}
+			startNanos = Math.max(startNanos,
+				timing.readyNanos());
+		}
+		return startNanos;
+	}
+
+	/**
+	 * Each application is a thread of its own with a span for starting and a
+	 * span for stopping, and a start on the critical path is flagged as such.
+	 * A start or stop that never finished is an instant event instead.
+	 * 
+	 * @return this report in the Trace Event Format, as JSON
+	 */
+	public String toTraceEvents() {
+		final List<Timing> criticalPath = criticalPath();
+
+		final StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+		int tid = 0;
+		for (final Timing timing : this.timings) {
+			tid++;
+			final String name = timing.application()
+					.toString();
+			if (tid > 1) {
+				json.append(',');
+			}
+			json.append("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+					.append(tid)
+					.append(",\"args\":{\"name\":")
+					.append(quote(name))
+					.append("}}");
+			json.append(",\n{\"name\":\"thread_sort_index\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+					.append(tid)
+					.append(",\"args\":{\"sort_index\":")
+					.append(tid)
+					.append("}}");
+
+			appendSpan(json,
+				tid,
+				"start " + name,
+				"start",
+				timing.startInitiatedNanos(),
+				timing.readyNanos(),
+				",\"critical\":" + criticalPath.contains(timing) + ",\"phase\":" + timing.phase());
+			appendSpan(json,
+				tid,
+				"stop " + name,
+				"stop",
+				timing.stopInitiatedNanos(),
+				timing.stoppedNanos(),
+				",\"phase\":" + timing.phase());
+		}
+		return json.append("\n],\"displayTimeUnit\":\"ms\"}\n")
+				.toString();
+	}
+
+	private static void appendSpan(final StringBuilder json,
+			final int tid,
+			final String name,
+			final String category,
+			final long beginNanos,
+			final long endNanos,
+			final String args) {
+		if (beginNanos == NOT_RECORDED) {
+			return;
+		}
+		json.append(",\n{\"name\":")
+				.append(quote(name))
+				.append(",\"cat\":\"")
+				.append(category)
+				.append("\",\"pid\":1,\"tid\":")
+				.append(tid)
+				.append(",\"ts\":")
+				.append(NANOSECONDS.toMicros(beginNanos));
+		if (endNanos == NOT_RECORDED) {
+			json.append(",\"ph\":\"i\",\"s\":\"t\"");
+		} else {
+			json.append(",\"ph\":\"X\",\"dur\":")
+					.append(NANOSECONDS.toMicros(endNanos - beginNanos));
+		}
+		json.append(",\"args\":{\"finished\":")
+				.append(endNanos != NOT_RECORDED)
+				.append(args)
+				.append("}}");
+	}
+
+	private static String quote(final String string) {
+		final StringBuilder quoted = new StringBuilder("\"");
+		for (final char c : string.toCharArray()) {
+			switch (c) {
+				case '"':
+					quoted.append("\\\"");
+					break;
+				case '\\':
+					quoted.append("\\\\");
+					break;
+				default:
+					if (c < 0x20) {
+						quoted.append(String.format("\\u%04x", (int) c));
+					} else {
+						quoted.append(c);
+					}
+			}
+		}
+		return quoted.append('"')
+				.toString();
+	}
+
+	/**
+	 * A table of every application by phase, with the critical path marked by
+	 * an asterisk.
+	 */
+	@Override
+	public String toString() {
+		final List<Timing> criticalPath = criticalPath();
+
+		final StringBuilder report = new StringBuilder("Group ");
+		final long startNanos = startNanos();
+		if (startNanos == NOT_RECORDED) {
+			report.append("did not start");
+		} else {
+			report.append("started in ")
+					.append(NANOSECONDS.toMillis(startNanos))
+					.append("ms");
+		}
+		if (!this.readinessMeasured) {
+			report.append(", one application at a time so without a critical path");
+		}
+		for (int phase = 0; phase < this.phases; phase++) {
+			report.append("\n  phase ")
+					.append(phase);
+			for (final Timing timing : phase(phase)) {
+				report.append("\n  ")
+						.append(criticalPath.contains(timing) ? '*' : ' ')
+						.append(' ')
+						.append(timing);
+			}
+		}
+		return report.toString();
+	}
+
+	/**
+	 * The times, since the group began to start, of the events in the life of
+	 * one application, any of which is {@link GroupReport#NOT_RECORDED} if
+	 * it has not happened.
+	 */
+	public static final class Timing {
+
+		private final Application application;
+		private final int phase;
+		private final long startInitiatedNanos;
+		private final long readyNanos;
+		private final long stopInitiatedNanos;
+		private final long stoppedNanos;
+
+		Timing(final Application application,
+				final int phase,
+				final long startInitiatedNanos,
+				final long readyNanos,
+				final long stopInitiatedNanos,
+				final long stoppedNanos) {
+			this.application = application;
+			this.phase = phase;
+			this.startInitiatedNanos = startInitiatedNanos;
+			this.readyNanos = readyNanos;
+			this.stopInitiatedNanos = stopInitiatedNanos;
+			this.stoppedNanos = stoppedNanos;
+		}
+
+		public Application application() {
+			return this.application;
+		}
+
+		/**
+		 * @return the index of the phase of the application, from 0
+		 */
+		public int phase() {
+			return this.phase;
+		}
+
+		/**
+		 * @return when the application was asked to start
+		 */
+		public long startInitiatedNanos() {
+			return this.startInitiatedNanos;
+		}
+
+		/**
+		 * @return when the application was awaited to have started
+		 */
+		public long readyNanos() {
+			return this.readyNanos;
+		}
+
+		/**
+		 * @return when the application was asked to stop
+		 */
+		public long stopInitiatedNanos() {
+			return this.stopInitiatedNanos;
+		}
+
+		/**
+		 * @return when the application was awaited to have stopped
+		 */
+		public long stoppedNanos() {
+			return this.stoppedNanos;
+		}
+
+		/**
+		 * @return how long the application took to become ready once asked to
+		 *         start
+		 */
+		public long startNanos() {
+			return elapsed(this.startInitiatedNanos,
+				this.readyNanos);
+		}
+
+		/**
+		 * @return how long the application took to stop once asked to
+		 */
+		public long stopNanos() {
+			return elapsed(this.stopInitiatedNanos,
+				this.stoppedNanos);
+		}
+
+		private static long elapsed(final long beginNanos, final long endNanos) {
+			if (beginNanos == NOT_RECORDED || endNanos == NOT_RECORDED) {
+				return NOT_RECORDED;
+			}
+			return endNanos - beginNanos;
+		}
+
+		@Override
+		public String toString() {
+			return this.application + " [started=" + millis(this.startInitiatedNanos) + ", ready="
+					+ millis(this.readyNanos) + " (" + millis(startNanos()) + "), stopping="
+					+ millis(this.stopInitiatedNanos) + ", stopped=" + millis(this.stoppedNanos) + " ("
+					+ millis(stopNanos()) + ")]";
+		}
+
+		private static String millis(final long nanos) {
+			if (nanos == NOT_RECORDED) {
+				return "-";
+			}
+			return NANOSECONDS.toMillis(nanos) + "ms";
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.application;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.util.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Shared by {@link Group} and {@link DependencyGroup}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class Groups {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Groups.class);
+
+	private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+			.setDaemon(true)
+			.setNameFormat("jint-group-%d")
+			.build();
+
+	private Groups() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	static void awaitStart(final Application application, final Deadline deadline)
+			throws ApplicationException, InterruptedException {
+		LOGGER.debug("Awaiting start of {}", application);
+		if (deadline == null) {
+			application.awaitStart();
+		} else {
+			application.awaitStart(Math.max(0, deadline.remainingNanos()),
+				TimeUnit.NANOSECONDS);
+		}
+		LOGGER.debug("Started {}", application);
+	}
+
+	/**
+	 * Starting and stopping applications blocks, so a group is given threads of
+	 * its own for the duration of a start or stop.
+	 * 
+	 * @param parallelism the most applications to start or stop at once
+	 */
+	static ListeningExecutorService newExecutor(final int parallelism) {
+		return MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(parallelism,
+			THREAD_FACTORY));
+	}
+
+	/**
+	 * Applications being started are interrupted, so this will not wait long
+	 * unless one ignores interruption.
+	 */
+	static void awaitTerminationUninterruptibly(final ExecutorService executor) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					executor.awaitTermination(Long.MAX_VALUE,
+						TimeUnit.NANOSECONDS);
+					return;
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread()
+						.interrupt();
+			}
+		}
+	}
+}
@@ -25,6 +25,7 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
+import org.neverfear.jint.api.ConsoleMode;
 import org.neverfear.jint.api.Description;
 
 /**
@@ -44,6 +45,7 @@ public class ImmutableDescription
 	private final List<String> command;
 	private final boolean inheritIO;
 	private final boolean errorMappedToOutput;
+	private final ConsoleMode consoleMode;
 
 	/**
 	 * Arguments are strictly copied to allow subsequent mutations after
@@ -56,7 +58,8 @@ public class ImmutableDescription
 				description.environment(),
 				description.command(),
 				description.isIOInherited(),
-				description.isErrorMappedToOutput());
+				description.isErrorMappedToOutput(),
+				description.consoleMode());
 	}
 
 	/**
@@ -76,6 +79,31 @@ public class ImmutableDescription
 			final List<String> command,
 			final boolean inheritIO,
 			final boolean errorMappedToOutput) {
+		this(workingDirectory,
+				environment,
+				command,
+				inheritIO,
+				errorMappedToOutput,
+				ConsoleMode.PIPED);
+	}
+
+	/**
+	 * Arguments are strictly copied to allow subsequent mutations after
+	 * construction of the snapshot. This is useful for the builders.
+	 * 
+	 * @param workingDirectory
+	 * @param environment
+	 * @param command
+	 * @param inheritIO
+	 * @param errorMappedToOutput
+	 * @param consoleMode
+	 */
+	public ImmutableDescription(final File workingDirectory,
+			final Map<String, String> environment,
+			final List<String> command,
+			final boolean inheritIO,
+			final boolean errorMappedToOutput,
+			final ConsoleMode consoleMode) {
 		super();
 		/*
 		 * File is non-final and so could be subject to mutation. To encapsulate
@@ -87,6 +115,7 @@ public class ImmutableDescription
 
 		this.inheritIO = inheritIO;
 		this.errorMappedToOutput = errorMappedToOutput;
+		this.consoleMode = consoleMode;
 	}
 
 	@Override
@@ -114,11 +143,17 @@ public class ImmutableDescription
 		return this.inheritIO;
 	}
 
+	@Override
+	public ConsoleMode consoleMode() {
+		return this.consoleMode;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((this.command == null) ? 0 : this.command.hashCode());
+		result = prime * result + ((this.consoleMode == null) ? 0 : this.consoleMode.hashCode());
 		result = prime * result + ((this.environment == null) ? 0 : this.environment.hashCode());
 		result = prime * result + (this.errorMappedToOutput ? 1231 : 1237);
 		result = prime * result + (this.inheritIO ? 1231 : 1237);
@@ -145,6 +180,9 @@ public class ImmutableDescription
 		} else if (!this.command.equals(other.command)) {
 			return false;
 		}
+		if (this.consoleMode != other.consoleMode) {
+			return false;
+		}
 		if (this.environment == null) {
 			if (other.environment != null) {
 				return false;
@@ -173,7 +211,8 @@ public class ImmutableDescription
 		return getClass().getSimpleName()
 				+ " [workingDirectory="
 				+ this.workingDirectory + ", environment=" + this.environment + ", command=" + this.command
-				+ ", inheritIO=" + this.inheritIO + ", errorMappedToOutput=" + this.errorMappedToOutput + "]";
+				+ ", inheritIO=" + this.inheritIO + ", errorMappedToOutput=" + this.errorMappedToOutput
+				+ ", consoleMode=" + this.consoleMode + "]";
 	}
 
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.application;
+
+import static org.neverfear.jint.application.GroupReport.NOT_RECORDED;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.application.GroupReport.Timing;
+
+/**
+ * Records when each application of a {@link Group} is started, becomes ready
+ * and is stopped, from any thread, for a {@link GroupReport}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class Timeline {
+
+	private static final int START_INITIATED = 0;
+	private static final int READY = 1;
+	private static final int STOP_INITIATED = 2;
+	private static final int STOPPED = 3;
+
+	private final List<Collection<Application>> phases;
+	private final boolean concurrent;
+	private final long originNanos = System.nanoTime();
+	private final Map<Application, long[]> events = new IdentityHashMap<>();
+
+	/**
+	 * @param phases the phases of the group, in start order
+	 * @param concurrent whether the applications of a phase are awaited at
+	 *        once, so that each is recorded ready as soon as it is
+	 */
+	Timeline(final List<Collection<Application>> phases, final boolean concurrent) {
+		this.phases = new ArrayList<>(phases);
+		this.concurrent = concurrent;
+	}
+
+	void startInitiated(final Application application) {
+		record(application,
+			START_INITIATED);
+	}
+
+	void ready(final Application application) {
+		record(application,
+			READY);
+	}
+
+	void stopInitiated(final Application application) {
+		record(application,
+			STOP_INITIATED);
+	}
+
+	void stopped(final Application application) {
+		record(application,
+			STOPPED);
+	}
+
+	private synchronized void record(final Application application, final int event) {
+		long[] events = this.events.get(application);
+		if (events == null) {
+			events = new long[] { NOT_RECORDED, NOT_RECORDED, NOT_RECORDED, NOT_RECORDED };
+			this.events.put(application,
+				events);
+		}
+		events[event] = System.nanoTime() - this.originNanos;
+	}
+
+	synchronized GroupReport report() {
+		final List<Timing> timings = new ArrayList<>();
+		for (int phase = 0; phase < this.phases.size(); phase++) {
+			for (final Application application : this.phases.get(phase)) {
+				final long[] events = this.events.get(application);
+				if (events == null) {
+					timings.add(new Timing(application,
+							phase,
+							NOT_RECORDED,
+							NOT_RECORDED,
+							NOT_RECORDED,
+							NOT_RECORDED));
+				} else {
+					timings.add(new Timing(application,
+							phase,
+							events[START_INITIATED],
+							events[READY],
+							events[STOP_INITIATED],
+							events[STOPPED]));
+				}
+			}
+		}
+		return new GroupReport(timings,
+				this.phases.size(),
+				this.concurrent);
+	}
+}
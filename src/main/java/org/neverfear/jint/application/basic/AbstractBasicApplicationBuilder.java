@@ -28,13 +28,16 @@ import java.util.List;
 import java.util.Map;
 
 import org.neverfear.jint.api.ApplicationBuilder;
+import org.neverfear.jint.api.ConsoleMode;
 import org.neverfear.jint.api.Handle;
 import org.neverfear.jint.api.Location;
 import org.neverfear.jint.api.WaitStrategy;
 import org.neverfear.jint.location.local.Localhost;
+import org.neverfear.jint.notify.NotifyChannel;
 import org.neverfear.jint.util.CollectionUtil;
 import org.neverfear.jint.util.ProcessUtil;
 import org.neverfear.jint.waitstrategy.NoOpWaitStrategy;
+import org.neverfear.jint.waitstrategy.NotifyWaitStrategy;
 
 @SuppressWarnings("unchecked")
 public abstract class AbstractBasicApplicationBuilder<A extends BasicApplication, B extends ApplicationBuilder>
@@ -47,6 +50,7 @@ public abstract class AbstractBasicApplicationBuilder<A extends BasicApplication
 
 	protected boolean inheritIO = defaultInheritIO();
 	protected boolean errorMappedToOutput = defaultErrorMappedToOutput();
+	protected ConsoleMode consoleMode = defaultConsoleMode();
 
 	protected WaitStrategy waitStrategy = defaultWaitStrategy();
 	protected Location location = defaultLocation();
@@ -79,6 +83,10 @@ public abstract class AbstractBasicApplicationBuilder<A extends BasicApplication
 		return false;
 	}
 
+	protected ConsoleMode defaultConsoleMode() {
+		return ConsoleMode.PIPED;
+	}
+
 	protected WaitStrategy defaultWaitStrategy() {
 		return NoOpWaitStrategy.INSTANCE;
 	}
@@ -108,6 +116,20 @@ public abstract class AbstractBasicApplicationBuilder<A extends BasicApplication
 		return (B) this;
 	}
 
+	/**
+	 * Tells the application where the channel is, through its environment,
+	 * and waits for it to report on the channel that it is ready.
+	 * 
+	 * @param channel
+	 * @return
+	 */
+	public B waitForNotify(final NotifyChannel channel) {
+		checkNotNull(channel, "channel cannot be null");
+		environment(NotifyChannel.ENVIRONMENT_VARIABLE,
+			channel.address());
+		return waitStrategy(new NotifyWaitStrategy(channel));
+	}
+
 	@Override
 	public boolean isIOInherited() {
 		return this.inheritIO;
@@ -156,6 +178,23 @@ public abstract class AbstractBasicApplicationBuilder<A extends BasicApplication
 		return (B) this;
 	}
 
+	@Override
+	public ConsoleMode consoleMode() {
+		return this.consoleMode;
+	}
+
+	/**
+	 * Selects how the console of the application is captured.
+	 * 
+	 * @param consoleMode
+	 * @return
+	 */
+	public B consoleMode(final ConsoleMode consoleMode) {
+		checkNotNull(consoleMode, "console mode cannot be null");
+		this.consoleMode = consoleMode;
+		return (B) this;
+	}
+
 	/*
 	 * Collections
 	 */
@@ -17,6 +17,8 @@ package org.neverfear.jint.application.basic;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.concurrent.TimeUnit;
+
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
 import org.neverfear.jint.api.Console;
@@ -26,6 +28,8 @@ import org.neverfear.jint.api.WaitStrategy;
 import org.neverfear.jint.util.ProcessUtil;
 import org.slf4j.Logger;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * <p>
  * Represents the most basic application in the system. This is one that offers
@@ -107,6 +111,15 @@ public class BasicApplication
 		logStateChange("Started {}");
 	}
 
+	@Override
+	public void awaitStart(final long timeout, final TimeUnit unit) throws InterruptedException, ApplicationException {
+		logStateChange("Awaiting start of {}");
+		this.waitStrategy.waitFor(this,
+			timeout,
+			unit);
+		logStateChange("Started {}");
+	}
+
 	@Override
 	public void awaitStop() throws InterruptedException, ApplicationException {
 		if (this.handle.isRunning()) {
@@ -121,6 +134,11 @@ public class BasicApplication
 		return this.handle.exitCode();
 	}
 
+	@Override
+	public ListenableFuture<Integer> termination() {
+		return this.handle.termination();
+	}
+
 	@Override
 	public boolean isRunning() {
 		return this.handle.isRunning();
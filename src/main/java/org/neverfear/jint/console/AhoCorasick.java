@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * An Aho-Corasick automaton that finds every occurrence of a fixed set of
+ * keywords in a single pass over the text, however many keywords there are.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class AhoCorasick {
+
+	static final int START = 0;
+
+	private static final int[] NO_MATCHES = new int[0];
+
+	private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+	private final int[] failures;
+
+	/**
+	 * The indexes of the keywords that end at each state, including those
+	 * reached by following failure links.
+	 */
+	private final int[][] matches;
+
+	/**
+	 * 
+	 * @param keywords the keywords to find, none of which may be empty
+	 */
+	AhoCorasick(final List<String> keywords) {
+		final List<List<Integer>> keywordsEndingAt = new ArrayList<>();
+		addState(keywordsEndingAt);
+
+		for (int keyword = 0; keyword < keywords.size(); keyword++) {
+			final String text = keywords.get(keyword);
+			if (text.isEmpty()) {
+				throw new IllegalArgumentException("Keywords cannot be empty");
+			}
+			int state = START;
+			for (int index = 0; index < text.length(); index++) {
+				final Character character = text.charAt(index);
+				final Integer next = this.transitions.get(state).get(character);
+				if (next == null) {
+					final int added = addState(keywordsEndingAt);
+					this.transitions.get(state).put(character, added);
+					state = added;
+				} else {
+					state = next;
+				}
+			}
+			keywordsEndingAt.get(state).add(keyword);
+		}
+
+		final int stateCount = this.transitions.size();
+		this.failures = new int[stateCount];
+		this.matches = new int[stateCount][];
+
+		/*
+		 * Breadth first, so that the failure state of each state is complete
+		 * before it is needed.
+		 */
+		final Queue<Integer> queue = new ArrayDeque<>();
+		this.failures[START] = START;
+		this.matches[START] = NO_MATCHES;
+		for (final int child : this.transitions.get(START).values()) {
+			this.failures[child] = START;
+			this.matches[child] = toArray(keywordsEndingAt.get(child), NO_MATCHES);
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			final int state = queue.remove();
+			for (final Map.Entry<Character, Integer> transition : this.transitions.get(state).entrySet()) {
+				final int child = transition.getValue();
+				final int failure = next(this.failures[state], transition.getKey());
+				this.failures[child] = failure;
+				this.matches[child] = toArray(keywordsEndingAt.get(child), this.matches[failure]);
+				queue.add(child);
+			}
+		}
+	}
+
+	private int addState(final List<List<Integer>> keywordsEndingAt) {
+		this.transitions.add(new HashMap<Character, Integer>());
+		keywordsEndingAt.add(new ArrayList<Integer>());
+		return this.transitions.size() - 1;
+	}
+
+	private static int[] toArray(final List<Integer> own, final int[] inherited) {
+		if (own.isEmpty()) {
+			return inherited;
+		}
+		final int[] result = new int[own.size() + inherited.length];
+		for (int index = 0; index < own.size(); index++) {
+			result[index] = own.get(index);
+		}
+		System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+		return result;
+	}
+
+	/**
+	 * @param state the current state, initially {@link #START}
+	 * @param character the next character of the text
+	 * @return the state after consuming character
+	 */
+	int next(final int state, final char character) {
+		int current = state;
+		while (true) {
+			final Integer next = this.transitions.get(current).get(character);
+			if (next != null) {
+				return next;
+			}
+			if (current == START) {
+				return START;
+			}
+			current = this.failures[current];
+		}
+	}
+
+	/**
+	 * @param state a state returned by {@link #next(int, char)}
+	 * @return the indexes of the keywords that end at the character just
+	 *         consumed. Callers must not modify the array.
+	 */
+	int[] matches(final int state) {
+		return this.matches[state];
+	}
+
+	/**
+	 * @return the number of states in the automaton
+	 */
+	int size() {
+		return this.transitions.size();
+	}
+
+	@Override
+	public String toString() {
+		return "AhoCorasick [states=" + size() + "]";
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Tracks how many bytes a writer has appended to a file and whether the writer
+ * has finished. Readers tailing the file park on this signal when they reach
+ * the current end of the file instead of spinning until more data arrives.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class AppendSignal {
+
+	private long length = 0;
+	private boolean endOfFile = false;
+
+	/**
+	 * Records that bytes have been appended and wakes any waiting readers.
+	 * 
+	 * @param count the number of bytes appended.
+	 */
+	public synchronized void appended(final long count) {
+		this.length += count;
+		notifyAll();
+	}
+
+	/**
+	 * Records that the writer has finished and wakes any waiting readers. No
+	 * further bytes will be appended.
+	 */
+	public synchronized void endOfFile() {
+		this.endOfFile = true;
+		notifyAll();
+	}
+
+	/**
+	 * 
+	 * @return the total number of bytes appended so far.
+	 */
+	public synchronized long length() {
+		return this.length;
+	}
+
+	/**
+	 * 
+	 * @return true once the writer has finished.
+	 */
+	public synchronized boolean isEndOfFile() {
+		return this.endOfFile;
+	}
+
+	/**
+	 * Blocks until more than position bytes have been appended, the writer has
+	 * finished or the timeout elapses, whichever comes first.
+	 * 
+	 * @param position the number of bytes the caller has already consumed.
+	 * @param timeoutMillis the maximum time to wait.
+	 * @throws InterruptedException if the current thread is interrupted.
+	 */
+	public synchronized void awaitAppend(final long position, final long timeoutMillis) throws InterruptedException {
+		final long deadline = System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis);
+		long remaining = deadline - System.nanoTime();
+		while (this.length <= position && !this.endOfFile && remaining > 0) {
+			NANOSECONDS.timedWait(this, remaining);
+			remaining = deadline - System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Random access to the lines of a captured stream, backed by a
+ * {@link LineIndex} maintained while the stream is captured. Fetching a line
+ * reads only that line rather than the stream up to it.
+ * </p>
+ * 
+ * <p>
+ * Only lines terminated by a new line are available while the stream is still
+ * being captured. Any trailing unterminated line becomes available once the
+ * stream reaches the end of file. Like {@link java.io.BufferedReader} line
+ * terminators are not included and the platform default charset is used.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class CapturedLines
+	implements Closeable {
+
+	private static final int EOF = -1;
+
+	/**
+	 * Where the indexed bytes are read from.
+	 */
+	interface Source
+		extends Closeable {
+
+		/**
+		 * Brings the index up to date, if the capture does not do so itself.
+		 * 
+		 * @param index the index to update
+		 * @throws IOException
+		 */
+		void refresh(LineIndex index) throws IOException;
+
+		/**
+		 * @return true once nothing further will be appended to the capture.
+		 */
+		boolean isEndOfFile();
+
+		/**
+		 * Reads indexed bytes from an absolute position.
+		 * 
+		 * @return the number of bytes read, or -1 if position is at the end.
+		 * @throws IOException
+		 */
+		int read(long position, byte[] buffer, int offset, int length) throws IOException;
+	}
+
+	private final LineIndex index;
+	private final Source source;
+	private final Charset charset = Charset.defaultCharset();
+
+	CapturedLines(final LineIndex index, final Source source) {
+		this.index = index;
+		this.source = source;
+	}
+
+	/**
+	 * @return the number of lines available.
+	 * @throws IOException
+	 */
+	public int count() throws IOException {
+		/*
+		 * Check for the end of file before refreshing so that a true result
+		 * means everything has been indexed.
+		 */
+		final boolean endOfFile = this.source.isEndOfFile();
+		this.source.refresh(this.index);
+		synchronized (this.index) {
+			final int terminated = this.index.terminatedLineCount();
+			if (endOfFile && this.index.length() > this.index.start(terminated)) {
+				return terminated + 1;
+			}
+			return terminated;
+		}
+	}
+
+	/**
+	 * @param line the zero based line number
+	 * @return the line
+	 * @throws IOException
+	 * @throws IndexOutOfBoundsException if the line is not available
+	 */
+	public String line(final int line) throws IOException {
+		final int count = count();
+		if (line < 0 || line >= count) {
+			throw new IndexOutOfBoundsException("Line " + line + " of " + count);
+		}
+		return read(line);
+	}
+
+	/**
+	 * @param lines the maximum number of lines
+	 * @return the last lines available, oldest first
+	 * @throws IOException
+	 */
+	public List<String> last(final int lines) throws IOException {
+		final int count = count();
+		return read(Math.max(0, count - lines), count);
+	}
+
+	/**
+	 * Lines that start at or after a position, such as a previous result of
+	 * {@link #end()}.
+	 * 
+	 * @param position an offset into the stream
+	 * @return the lines available starting at or after position, oldest first
+	 * @throws IOException
+	 */
+	public List<String> since(final long position) throws IOException {
+		final int count = count();
+		int first = Math.max(0, this.index.lineAt(position));
+		if (first < count && this.index.start(first) < position) {
+			first++;
+		}
+		return read(first, count);
+	}
+
+	/**
+	 * @return the offset just after the last line available.
+	 * @throws IOException
+	 */
+	public long end() throws IOException {
+		final int count = count();
+		return end(count - 1);
+	}
+
+	private List<String> read(final int first, final int last) throws IOException {
+		if (first >= last) {
+			return Collections.emptyList();
+		}
+		final List<String> lines = new ArrayList<>(last - first);
+		for (int line = first; line < last; line++) {
+			lines.add(read(line));
+		}
+		return lines;
+	}
+
+	private long end(final int line) {
+		if (line < 0) {
+			return 0;
+		}
+		synchronized (this.index) {
+			if (line < this.index.terminatedLineCount()) {
+				return this.index.start(line + 1);
+			}
+			return this.index.length();
+		}
+	}
+
+	private String read(final int line) throws IOException {
+		final long start = this.index.start(line);
+		final byte[] bytes = new byte[(int) (end(line) - start)];
+		int offset = 0;
+		while (offset < bytes.length) {
+			final int count = this.source.read(start + offset, bytes, offset, bytes.length - offset);
+			if (count == EOF) {
+				throw new EOFException("Line " + line + " is incomplete");
+			}
+			offset += count;
+		}
+
+		int length = bytes.length;
+		if (length > 0 && bytes[length - 1] == '\n') {
+			length--;
+		}
+		if (length > 0 && bytes[length - 1] == '\r') {
+			length--;
+		}
+		return new String(bytes,
+				0,
+				length,
+				this.charset);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.source.close();
+	}
+
+	@Override
+	public String toString() {
+		return "CapturedLines [index=" + this.index + "]";
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleSubscription;
+
+/**
+ * A single captured stream of a console, such as standard output, which any
+ * number of readers may connect to.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+interface ConsoleCapture {
+
+	/**
+	 * Users are responsible for closing this stream.
+	 * 
+	 * @return a new stream that reads from the start of the capture.
+	 * @throws IOException
+	 */
+	InputStream connect() throws IOException;
+
+	/**
+	 * Users are responsible for closing this stream.
+	 * 
+	 * @param position the number of bytes to skip, typically a previous
+	 *        {@link #length()}.
+	 * @return a new stream that reads from the position in the capture.
+	 * @throws IOException
+	 */
+	InputStream connect(long position) throws IOException;
+
+	/**
+	 * @return the number of bytes captured so far.
+	 */
+	long length();
+
+	/**
+	 * Pushes the capture to a listener, starting from the beginning.
+	 * 
+	 * @param listener the listener
+	 * @return the subscription
+	 * @throws IOException
+	 */
+	ConsoleSubscription subscribe(ConsoleListener listener) throws IOException;
+
+	/**
+	 * Users are responsible for closing the lines.
+	 * 
+	 * @return random access to the lines captured so far, and any captured
+	 *         later.
+	 * @throws IOException
+	 */
+	CapturedLines lines() throws IOException;
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes the content of a capture to listeners from the thread that copies it,
+ * so that any number of listeners share that one thread. A new listener first
+ * has the content copied so far replayed to it on the subscribing thread, and
+ * is then handed over to the copying thread without missing or repeating a
+ * byte.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class ConsolePublisher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ConsolePublisher.class);
+
+	private static final int EOF = -1;
+	private static final int BUFFER_SIZE = 0x1000;
+	private static final Subscription[] NONE = new Subscription[0];
+
+	private final ConsoleCapture capture;
+
+	private final Object lock = new Object();
+
+	/**
+	 * Replaced rather than modified, so that it can be iterated outside of the
+	 * lock.
+	 */
+	private Subscription[] subscriptions = NONE;
+	private long published = 0;
+	private boolean endOfFile = false;
+
+	/**
+	 * 
+	 * @param capture the capture being published, from which content copied
+	 *        before a listener subscribes is replayed.
+	 */
+	ConsolePublisher(final ConsoleCapture capture) {
+		this.capture = capture;
+	}
+
+	/**
+	 * Called by the copying thread once the bytes can be read from the
+	 * capture.
+	 */
+	void publish(final byte[] buffer, final int offset, final int length) {
+		final Subscription[] subscriptions;
+		synchronized (this.lock) {
+			this.published += length;
+			subscriptions = this.subscriptions;
+		}
+		for (final Subscription subscription : subscriptions) {
+			subscription.onData(buffer, offset, length);
+		}
+	}
+
+	/**
+	 * Called by the copying thread once nothing further will be published.
+	 */
+	void endOfFile() {
+		final Subscription[] subscriptions;
+		synchronized (this.lock) {
+			this.endOfFile = true;
+			subscriptions = this.subscriptions;
+			this.subscriptions = NONE;
+		}
+		for (final Subscription subscription : subscriptions) {
+			subscription.onEndOfFile();
+		}
+	}
+
+	ConsoleSubscription subscribe(final ConsoleListener listener) throws IOException {
+		final Subscription subscription = new Subscription(checkNotNull(listener, "listener cannot be null"));
+		final byte[] buffer = new byte[BUFFER_SIZE];
+
+		try (InputStream replay = this.capture.connect()) {
+			long position = 0;
+			while (true) {
+				final long target;
+				synchronized (this.lock) {
+					if (position == this.published && !this.endOfFile) {
+						this.subscriptions = append(this.subscriptions, subscription);
+						return subscription;
+					}
+					target = this.published;
+				}
+
+				while (position < target) {
+					final int length = (int) Math.min(buffer.length, target - position);
+					final int readCount = replay.read(buffer, 0, length);
+					if (readCount == EOF) {
+						throw new EOFException("Capture ended at " + position + " before " + target);
+					}
+					subscription.onData(buffer, 0, readCount);
+					position += readCount;
+				}
+
+				synchronized (this.lock) {
+					if (position == this.published && this.endOfFile) {
+						break;
+					}
+				}
+			}
+		}
+
+		subscription.onEndOfFile();
+		return subscription;
+	}
+
+	private void unsubscribe(final Subscription subscription) {
+		synchronized (this.lock) {
+			final Subscription[] remaining = new Subscription[this.subscriptions.length];
+			int count = 0;
+			for (final Subscription candidate : this.subscriptions) {
+				if (candidate != subscription) {
+					remaining[count++] = candidate;
+				}
+			}
+			this.subscriptions = count == 0 ? NONE : Arrays.copyOf(remaining, count);
+		}
+	}
+
+	private static Subscription[] append(final Subscription[] subscriptions, final Subscription subscription) {
+		final Subscription[] appended = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+		appended[subscriptions.length] = subscription;
+		return appended;
+	}
+
+	private final class Subscription
+		implements ConsoleSubscription {
+
+		private final ConsoleListener listener;
+		private volatile boolean closed = false;
+
+		Subscription(final ConsoleListener listener) {
+			this.listener = listener;
+		}
+
+		void onData(final byte[] buffer, final int offset, final int length) {
+			if (this.closed) {
+				return;
+			}
+			try {
+				this.listener.onData(buffer, offset, length);
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Unsubscribing " + this.listener + " as it failed", e);
+				close();
+			}
+		}
+
+		void onEndOfFile() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				this.listener.onEndOfFile();
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Listener " + this.listener + " failed at the end of file", e);
+			}
+		}
+
+		@Override
+		public void close() {
+			this.closed = true;
+			unsubscribe(this);
+		}
+
+		@Override
+		public String toString() {
+			return "Subscription [listener=" + this.listener + ", closed=" + this.closed + "]";
+		}
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.neverfear.jint.api.Console;
+import org.neverfear.jint.util.JintExecutors;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * <p>
+ * Watches standard output of a console for any number of patterns with a
+ * single reader. Literal patterns are found together with one Aho-Corasick
+ * automaton, so adding more of them does not add more passes over each line.
+ * Regular expressions are matched against each line as before, and only until
+ * they have first matched.
+ * </p>
+ * 
+ * <p>
+ * Register patterns and then {@link #start()} the watcher. Each pattern has a
+ * future that completes with the first line it matches, or fails if standard
+ * output ends first. Closing the watcher cancels any future still outstanding.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class ConsoleWatcher
+	implements Closeable {
+
+	private final Console console;
+	private final ExecutorService executor;
+
+	private final List<String> literals = new ArrayList<>();
+	private final List<SettableFuture<String>> literalFutures = new ArrayList<>();
+
+	private final List<Pattern> patterns = new ArrayList<>();
+	private final List<SettableFuture<String>> patternFutures = new ArrayList<>();
+
+	private Future<?> task = null;
+	private InputStream output = null;
+	private boolean closed = false;
+
+	ConsoleWatcher(final Console console, final ExecutorService executor) {
+		this.console = checkNotNull(console, "console cannot be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Reads standard output using the executor shared by every console, see
+	 * {@link JintExecutors#io()}.
+	 * 
+	 * @param console the console to watch
+	 */
+	public ConsoleWatcher(final Console console) {
+		this(console,
+				JintExecutors.io());
+	}
+
+	/**
+	 * @param literal text to find within a line
+	 * @return a future that completes with the first line containing literal
+	 */
+	public synchronized ListenableFuture<String> whenContains(final String literal) {
+		checkNotNull(literal, "literal cannot be null");
+		checkState(this.task == null, "Patterns must be registered before the watcher is started");
+		if (literal.isEmpty()) {
+			throw new IllegalArgumentException("literal cannot be empty");
+		}
+
+		final SettableFuture<String> future = SettableFuture.create();
+		this.literals.add(literal);
+		this.literalFutures.add(future);
+		return future;
+	}
+
+	/**
+	 * @param pattern a regular expression to find within a line
+	 * @return a future that completes with the first line the pattern is found
+	 *         in
+	 */
+	public synchronized ListenableFuture<String> whenMatches(final Pattern pattern) {
+		checkNotNull(pattern, "pattern cannot be null");
+		checkState(this.task == null, "Patterns must be registered before the watcher is started");
+
+		final SettableFuture<String> future = SettableFuture.create();
+		this.patterns.add(pattern);
+		this.patternFutures.add(future);
+		return future;
+	}
+
+	/**
+	 * Starts reading standard output from the beginning.
+	 * 
+	 * @throws IOException if standard output cannot be read
+	 */
+	public synchronized void start() throws IOException {
+		checkState(this.task == null, "Already started");
+		checkState(!this.closed, "Already closed");
+
+		this.output = this.console.output();
+		this.task = this.executor.submit(new WatchTask(this.output,
+				new AhoCorasick(this.literals)));
+	}
+
+	/**
+	 * Stops reading and cancels the futures of any patterns not yet matched.
+	 */
+	@Override
+	public void close() throws IOException {
+		final InputStream output;
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (this.task != null) {
+				this.task.cancel(true);
+			}
+			output = this.output;
+		}
+
+		for (final SettableFuture<String> future : this.literalFutures) {
+			future.cancel(false);
+		}
+		for (final SettableFuture<String> future : this.patternFutures) {
+			future.cancel(false);
+		}
+		if (output != null) {
+			output.close();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ConsoleWatcher [literals=" + this.literals + ", patterns=" + this.patterns + "]";
+	}
+
+	private final class WatchTask
+		implements Runnable {
+
+		private final InputStream input;
+		private final AhoCorasick automaton;
+
+		/**
+		 * The number of futures not yet completed.
+		 */
+		private int remaining;
+
+		WatchTask(final InputStream input, final AhoCorasick automaton) {
+			this.input = input;
+			this.automaton = automaton;
+			this.remaining = ConsoleWatcher.this.literalFutures.size() + ConsoleWatcher.this.patternFutures.size();
+		}
+
+		@Override
+		public void run() {
+			try {
+				final BufferedReader reader = new BufferedReader(new InputStreamReader(this.input));
+				String line;
+				while (this.remaining > 0 && (line = reader.readLine()) != null) {
+					matchLiterals(line);
+					matchPatterns(line);
+				}
+				failRemaining(new EOFException("Standard output ended before a match"));
+			} catch (final IOException e) {
+				failRemaining(e);
+			} catch (final RuntimeException e) {
+				failRemaining(e);
+				throw e;
+			}
+		}
+
+		private void matchLiterals(final String line) {
+			int state = AhoCorasick.START;
+			for (int index = 0; index < line.length(); index++) {
+				state = this.automaton.next(state, line.charAt(index));
+				for (final int keyword : this.automaton.matches(state)) {
+					complete(ConsoleWatcher.this.literalFutures.get(keyword), line);
+				}
+			}
+		}
+
+		private void matchPatterns(final String line) {
+			for (int index = 0; index < ConsoleWatcher.this.patterns.size(); index++) {
+				final SettableFuture<String> future = ConsoleWatcher.this.patternFutures.get(index);
+				if (!future.isDone() && ConsoleWatcher.this.patterns.get(index).matcher(line).find()) {
+					complete(future, line);
+				}
+			}
+		}
+
+		private void complete(final SettableFuture<String> future, final String line) {
+			if (future.set(line)) {
+				this.remaining--;
+			}
+		}
+
+		private void failRemaining(final Throwable cause) {
+			for (final SettableFuture<String> future : ConsoleWatcher.this.literalFutures) {
+				future.setException(cause);
+			}
+			for (final SettableFuture<String> future : ConsoleWatcher.this.patternFutures) {
+				future.setException(cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the lines of a capture file whose index is maintained by whoever copies
+ * into the file.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+class FileLineSource
+	implements CapturedLines.Source {
+
+	private final RandomAccessFile file;
+	private final AppendSignal signal;
+
+	FileLineSource(final File file, final AppendSignal signal) throws IOException {
+		this.file = new RandomAccessFile(file,
+				"r");
+		this.signal = signal;
+	}
+
+	protected final FileChannel channel() {
+		return this.file.getChannel();
+	}
+
+	@Override
+	public void refresh(final LineIndex index) throws IOException {
+		// The index is maintained as the file is written
+	}
+
+	@Override
+	public boolean isEndOfFile() {
+		return this.signal.isEndOfFile();
+	}
+
+	@Override
+	public int read(final long position, final byte[] buffer, final int offset, final int length)
+			throws IOException {
+		return channel().read(ByteBuffer.wrap(buffer,
+			offset,
+			length),
+			position);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+}
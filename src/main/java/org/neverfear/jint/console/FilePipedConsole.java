@@ -15,21 +15,20 @@
  */
 package org.neverfear.jint.console;
 
-import static java.util.concurrent.Executors.newFixedThreadPool;
-
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
 
 import org.neverfear.jint.api.Console;
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleMark;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.util.JintExecutors;
 import org.neverfear.jint.util.JintUtil;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
 /**
  * <p>
  * Given stdin, stdout and stderr this implementation pipes content from those
@@ -45,19 +44,17 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
  * console is recorded in files that may be inspected by an observer</li>
  * </ul>
  * 
+ * <p>
+ * Alternatively the process may write stdout and stderr straight into the
+ * files, see {@link #fromRedirectedProcess(Process, File, File)}, which avoids
+ * copying the streams through this JVM at all.
+ * </p>
+ * 
  * @author doug@neverfear.org
  */
 public final class FilePipedConsole
 	implements Console, Closeable {
 
-	/**
-	 * 
-	 */
-	private static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactoryBuilder()
-			.setDaemon(true)
-			.setNameFormat(FilePipedConsole.class.getSimpleName() + "-%d")
-			.build();
-
 	private final File inputFile;
 	private final File outputFile;
 	private final File errorFile;
@@ -66,8 +63,8 @@ public final class FilePipedConsole
 	private final OutputStream realStdin;
 	private OutputStream stdin = null;
 
-	private final IoCopyToFileMultiplexerTask stdOutMultiplexer;
-	private final IoCopyToFileMultiplexerTask stdErrMultiplexer;
+	private final ConsoleCapture stdOutCapture;
+	private final ConsoleCapture stdErrCapture;
 
 	/**
 	 * 
@@ -90,17 +87,45 @@ public final class FilePipedConsole
 		 * These tasks will terminate by themselves once the streams are at EOF
 		 * or are closed
 		 */
-		this.stdOutMultiplexer = new IoCopyToFileMultiplexerTask(stdout,
+		final IoCopyToFileMultiplexerTask stdOutMultiplexer = new IoCopyToFileMultiplexerTask(stdout,
 				this.outputFile);
-		this.stdErrMultiplexer = new IoCopyToFileMultiplexerTask(stderr,
+		final IoCopyToFileMultiplexerTask stdErrMultiplexer = new IoCopyToFileMultiplexerTask(stderr,
 				this.errorFile);
+		this.stdOutCapture = stdOutMultiplexer;
+		this.stdErrCapture = stdErrMultiplexer;
 
 		this.realStdin = stdin;
-		executor.execute(this.stdOutMultiplexer);
-		executor.execute(this.stdErrMultiplexer);
+		executor.execute(stdOutMultiplexer);
+		executor.execute(stdErrMultiplexer);
+	}
+
+	/**
+	 * 
+	 * @param process a process whose stdout and stderr are redirected into the
+	 *        given files.
+	 * @param outputFile the file stdout is redirected to
+	 * @param errorFile the file stderr is redirected to
+	 * @throws IOException
+	 */
+	private FilePipedConsole(final Process process,
+			final File outputFile,
+			final File errorFile)
+			throws IOException {
+		this.inputFile = createDestinationFile("stdin");
+		this.outputFile = outputFile;
+		this.errorFile = errorFile;
+
+		this.stdOutCapture = new RedirectedFileCapture(process,
+				outputFile);
+		this.stdErrCapture = new RedirectedFileCapture(process,
+				errorFile);
+
+		this.realStdin = process.getOutputStream();
 	}
 
 	/**
+	 * Copies stdout and stderr using the executor shared by every console, see
+	 * {@link JintExecutors#io()}.
 	 * 
 	 * @param stdin the real stdin
 	 * @param stdout the real stdout
@@ -114,7 +139,7 @@ public final class FilePipedConsole
 		this(stdin,
 				stdout,
 				stderr,
-				newFixedThreadPool(2, DAEMON_THREAD_FACTORY));
+				JintExecutors.io());
 	}
 
 	/**
@@ -122,7 +147,7 @@ public final class FilePipedConsole
 	 */
 	@Override
 	public InputStream output() throws IOException {
-		return this.stdOutMultiplexer.connect();
+		return this.stdOutCapture.connect();
 	}
 
 	/**
@@ -130,7 +155,89 @@ public final class FilePipedConsole
 	 */
 	@Override
 	public InputStream error() throws IOException {
-		return this.stdErrMultiplexer.connect();
+		return this.stdErrCapture.connect();
+	}
+
+	/**
+	 * The listener is called back by the thread copying stdout.
+	 */
+	@Override
+	public ConsoleSubscription subscribeOutput(final ConsoleListener listener) throws IOException {
+		return this.stdOutCapture.subscribe(listener);
+	}
+
+	/**
+	 * The listener is called back by the thread copying stderr.
+	 */
+	@Override
+	public ConsoleSubscription subscribeError(final ConsoleListener listener) throws IOException {
+		return this.stdErrCapture.subscribe(listener);
+	}
+
+	@Override
+	public ConsoleMark mark() {
+		return new ConsoleMark(this.stdOutCapture.length(),
+				this.stdErrCapture.length());
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream output(final ConsoleMark mark) throws IOException {
+		return this.stdOutCapture.connect(mark.outputPosition());
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream error(final ConsoleMark mark) throws IOException {
+		return this.stdErrCapture.connect(mark.errorPosition());
+	}
+
+	/**
+	 * Maps the stdout capture file into memory rather than streaming it, see
+	 * {@link MappedCapture}. Users are responsible for closing the view.
+	 * 
+	 * @return a view that grows with the capture on {@link MappedCapture#refresh()}
+	 * @throws IOException
+	 */
+	public MappedCapture mappedOutput() throws IOException {
+		return new MappedCapture(this.outputFile);
+	}
+
+	/**
+	 * Maps the stderr capture file into memory rather than streaming it, see
+	 * {@link MappedCapture}. Users are responsible for closing the view.
+	 * 
+	 * @return a view that grows with the capture on {@link MappedCapture#refresh()}
+	 * @throws IOException
+	 */
+	public MappedCapture mappedError() throws IOException {
+		return new MappedCapture(this.errorFile);
+	}
+
+	/**
+	 * Looks up lines of stdout without reading it from the start. Users are
+	 * responsible for closing the lines.
+	 * 
+	 * @return the lines of stdout
+	 * @throws IOException
+	 */
+	public CapturedLines outputLines() throws IOException {
+		return this.stdOutCapture.lines();
+	}
+
+	/**
+	 * Looks up lines of stderr without reading it from the start. Users are
+	 * responsible for closing the lines.
+	 * 
+	 * @return the lines of stderr
+	 * @throws IOException
+	 */
+	public CapturedLines errorLines() throws IOException {
+		return this.stdErrCapture.lines();
 	}
 
 	/**
@@ -175,7 +282,14 @@ public final class FilePipedConsole
 		}
 	}
 
-	private static File createDestinationFile(final String streamName) throws IOException {
+	/**
+	 * Creates a new, empty file suitable for capturing a console stream.
+	 * 
+	 * @param streamName the name of the stream, e.g. "stdout"
+	 * @return the new file.
+	 * @throws IOException
+	 */
+	public static File createDestinationFile(final String streamName) throws IOException {
 		final File destination = JintUtil.createTempFile(FilePipedConsole.class,
 			streamName);
 		destination.createNewFile();
@@ -191,4 +305,25 @@ public final class FilePipedConsole
 				process.getErrorStream());
 	}
 
+	/**
+	 * Creates a console for a process that was started with stdout and stderr
+	 * redirected to files, typically created by
+	 * {@link #createDestinationFile(String)}. No copying takes place; readers
+	 * tail the files directly.
+	 * 
+	 * @param process the process
+	 * @param outputFile the file stdout was redirected to
+	 * @param errorFile the file stderr was redirected to
+	 * @return the console
+	 * @throws IOException
+	 */
+	public static FilePipedConsole fromRedirectedProcess(final Process process,
+			final File outputFile,
+			final File errorFile)
+			throws IOException {
+		return new FilePipedConsole(process,
+				outputFile,
+				errorFile);
+	}
+
 }
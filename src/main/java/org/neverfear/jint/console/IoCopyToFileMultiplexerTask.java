@@ -15,7 +15,6 @@
  */
 package org.neverfear.jint.console;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -23,75 +22,157 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Collection;
-import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
 
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.util.JintUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Copies a stream into a file that any number of readers may tail. When more
+ * of the stream is immediately available it is coalesced into a single write,
+ * up to a batch size or a delay, so that a busy stream does not cost a write
+ * per read. Whatever has been read is written as soon as the stream would
+ * block, so readers are not kept waiting for a quiet stream.
+ * 
  * @author doug@neverfear.org
  * 
  */
 public final class IoCopyToFileMultiplexerTask
-	implements Runnable {
+	implements Runnable, ConsoleCapture {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(IoCopyToFileMultiplexerTask.class);
 
 	private static final int EOF = -1;
-	private static final int BUFFER_SIZE = 0x1000;
+	private static final int MINIMUM_BATCH_SIZE = 0x1000;
 
-	private final Collection<PersistentInputStream> connected = new LinkedList<>();
+	private final AppendSignal signal = new AppendSignal();
+	private final LineIndex lineIndex = new LineIndex();
+	private final ConsolePublisher publisher = new ConsolePublisher(this);
 
 	private final InputStream input;
 	private final OutputStream output;
 	private final File outputFile;
 
-	private long totalSize = 0;
-	private boolean endOfFileReached = false;
+	private final int batchSize;
+	private final long maxDelayNanos;
 
-	public IoCopyToFileMultiplexerTask(final InputStream input, final File outputFile)
-			throws FileNotFoundException {
+	/**
+	 * 
+	 * @param input the stream to copy
+	 * @param outputFile the file to copy into
+	 * @param output a stream that writes to outputFile
+	 * @param batchSize the most bytes to coalesce into a single write
+	 * @param maxDelayMillis the longest to hold back bytes while more are
+	 *        available
+	 */
+	IoCopyToFileMultiplexerTask(final InputStream input,
+			final File outputFile,
+			final OutputStream output,
+			final int batchSize,
+			final long maxDelayMillis) {
 		this.input = input;
 		this.outputFile = outputFile;
-		this.output = new FileOutputStream(outputFile);
+		this.output = output;
+		this.batchSize = Math.max(batchSize, MINIMUM_BATCH_SIZE);
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+	}
+
+	/**
+	 * Coalesces writes according to {@link JintUtil#consoleWriteBatch()} and
+	 * {@link JintUtil#consoleWriteDelayMillis()}.
+	 * 
+	 * @param input the stream to copy
+	 * @param outputFile the file to copy into
+	 * @throws FileNotFoundException
+	 */
+	public IoCopyToFileMultiplexerTask(final InputStream input, final File outputFile)
+			throws FileNotFoundException {
+		this(input,
+				outputFile,
+				new FileOutputStream(outputFile),
+				JintUtil.consoleWriteBatch(),
+				JintUtil.consoleWriteDelayMillis());
 	}
 
+	/**
+	 * Connected streams park on the signal of this task once they have read
+	 * everything copied so far, and are woken as soon as more is copied or the
+	 * input reaches the end of file.
+	 * 
+	 * @return a new stream that reads from the start of the output file.
+	 * @throws IOException
+	 */
+	@Override
 	public InputStream connect() throws IOException {
-		synchronized (this.connected) {
-			final PersistentInputStream stream = new PersistentInputStream(new FileInputStream(this.outputFile));
-			if (this.endOfFileReached) {
-				stream.endOfFile(this.totalSize);
-			} else {
-				this.connected.add(stream);
-			}
-			return stream;
-		}
+		return connect(0);
 	}
 
-	private void endOfFile() {
-		synchronized (this.connected) {
-			for (final PersistentInputStream stream : this.connected) {
-				stream.endOfFile(this.totalSize);
-			}
-			this.endOfFileReached = true;
-			this.connected.clear();
-		}
+	@Override
+	public InputStream connect(final long position) throws IOException {
+		return new PersistentInputStream(openAt(this.outputFile,
+			position),
+				this.signal,
+				position);
+	}
+
+	/**
+	 * @return the number of bytes copied into the output file so far.
+	 */
+	@Override
+	public long length() {
+		return this.signal.length();
+	}
+
+	/**
+	 * The lines are indexed as they are copied, so looking one up reads only
+	 * that line from the output file.
+	 */
+	@Override
+	public CapturedLines lines() throws IOException {
+		return new CapturedLines(this.lineIndex,
+				new FileLineSource(this.outputFile,
+						this.signal));
+	}
+
+	/**
+	 * The listener is called back by this task as it copies.
+	 */
+	@Override
+	public ConsoleSubscription subscribe(final ConsoleListener listener) throws IOException {
+		return this.publisher.subscribe(listener);
 	}
 
 	@Override
 	public void run() {
 
-		final byte[] buffer = new byte[BUFFER_SIZE];
+		final byte[] batch = new byte[this.batchSize];
+		int pending = 0;
+		long batchStarted = 0;
 
 		// Close `to` at the end of loop
 		try (OutputStream to = this.output;
-				InputStream from = new BufferedInputStream(this.input)) {
-			int readCount;
-			while ((readCount = from.read(buffer)) != EOF) {
-				to.write(buffer, 0, readCount);
-				to.flush();
-				this.totalSize += readCount;
+				InputStream from = this.input) {
+			try {
+				int readCount;
+				while ((readCount = from.read(batch, pending, batch.length - pending)) != EOF) {
+					if (pending == 0) {
+						batchStarted = System.nanoTime();
+					}
+					pending += readCount;
+
+					if (pending == batch.length || from.available() == 0
+							|| System.nanoTime() - batchStarted >= this.maxDelayNanos) {
+						final int length = pending;
+						pending = 0;
+						commit(to, batch, length);
+					}
+				}
+			} finally {
+				// Don't lose what was read before the stream ended or failed
+				commit(to, batch, pending);
 			}
 		} catch (final IOException e) {
 			/*
@@ -102,8 +183,37 @@ public final class IoCopyToFileMultiplexerTask
 				LOGGER.trace("Task to copy to " + this.outputFile, e);
 			}
 		} finally {
-			endOfFile();
+			this.signal.endOfFile();
+			this.publisher.endOfFile();
+		}
+	}
+
+	/**
+	 * Writes a batch and then tells readers about it.
+	 */
+	private void commit(final OutputStream to, final byte[] batch, final int length) throws IOException {
+		if (length == 0) {
+			return;
 		}
+		to.write(batch, 0, length);
+		to.flush();
+		this.lineIndex.append(batch, 0, length);
+		this.signal.appended(length);
+		this.publisher.publish(batch, 0, length);
 	}
 
+	/**
+	 * @return a stream over file that starts reading at position.
+	 * @throws IOException
+	 */
+	static FileInputStream openAt(final File file, final long position) throws IOException {
+		final FileInputStream stream = new FileInputStream(file);
+		try {
+			stream.getChannel().position(position);
+		} catch (final IOException e) {
+			stream.close();
+			throw e;
+		}
+		return stream;
+	}
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.util.JintUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Copies a stream into off-heap memory so readers can consume it without a
+ * round trip through the file system. Only the most recent capacity bytes are
+ * held in memory; once that is exceeded the oldest segments are spilled to a
+ * file, so readers always see the complete history.
+ * 
+ * The spill file is closed and deleted once the copy has finished, the owner
+ * has {@link #release() released} the capture and every reader is closed.
+ * Readers connected after that only see what is still held in memory.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class IoCopyToMemoryMultiplexerTask
+	implements Runnable, ConsoleCapture {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IoCopyToMemoryMultiplexerTask.class);
+
+	private static final int EOF = -1;
+	private static final int BUFFER_SIZE = 0x1000;
+	static final int SEGMENT_SIZE = 0x10000;
+
+	private final AppendSignal signal = new AppendSignal();
+	private final LineIndex lineIndex = new LineIndex();
+	private final ConsolePublisher publisher = new ConsolePublisher(this);
+
+	private final InputStream input;
+	private final String streamName;
+	private final long capacity;
+
+	private final Object lock = new Object();
+
+	/**
+	 * Every segment except the last is full.
+	 */
+	private final List<ByteBuffer> segments = new ArrayList<>();
+	private ByteBuffer spareSegment = null;
+
+	/**
+	 * The offset of the first byte still held in memory. Everything before it
+	 * has been spilled. Always a multiple of {@link #SEGMENT_SIZE}.
+	 */
+	private long memoryStart = 0;
+	private long length = 0;
+
+	private File spillFile = null;
+	private FileChannel spill = null;
+
+	private int readers = 0;
+	private boolean copying = true;
+	private boolean released = false;
+
+	/**
+	 * 
+	 * @param input the stream to copy
+	 * @param streamName the name of the stream, used to name the spill file.
+	 * @param capacity the number of bytes to hold in memory before spilling.
+	 */
+	public IoCopyToMemoryMultiplexerTask(final InputStream input, final String streamName, final long capacity) {
+		this.input = input;
+		this.streamName = streamName;
+		this.capacity = Math.max(capacity, SEGMENT_SIZE);
+	}
+
+	@Override
+	public InputStream connect() throws IOException {
+		return connect(0);
+	}
+
+	@Override
+	public InputStream connect(final long position) throws IOException {
+		opened();
+		return new PersistentInputStream(new MemoryInputStream(position),
+				this.signal,
+				position);
+	}
+
+	/**
+	 * @return the number of bytes copied into memory so far, including any
+	 *         spilled.
+	 */
+	@Override
+	public long length() {
+		synchronized (this.lock) {
+			return this.length;
+		}
+	}
+
+	@Override
+	public CapturedLines lines() {
+		opened();
+		return new CapturedLines(this.lineIndex,
+				new MemoryLineSource());
+	}
+
+	/**
+	 * The listener is called back by this task as it copies.
+	 */
+	@Override
+	public ConsoleSubscription subscribe(final ConsoleListener listener) throws IOException {
+		return this.publisher.subscribe(listener);
+	}
+
+	@Override
+	public void run() {
+
+		final byte[] buffer = new byte[BUFFER_SIZE];
+
+		try (InputStream from = new BufferedInputStream(this.input)) {
+			int readCount;
+			while ((readCount = from.read(buffer)) != EOF) {
+				append(buffer, readCount);
+				this.lineIndex.append(buffer, 0, readCount);
+				this.signal.appended(readCount);
+				this.publisher.publish(buffer, 0, readCount);
+			}
+		} catch (final IOException e) {
+			/*
+			 * Can't really do anything useful with this except log it at the
+			 * lowest possible level.
+			 */
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Task to copy " + this.streamName + " to memory", e);
+			}
+		} finally {
+			this.signal.endOfFile();
+			this.publisher.endOfFile();
+			synchronized (this.lock) {
+				this.copying = false;
+				closeSpillIfUnused();
+			}
+		}
+	}
+
+	/**
+	 * Called by the owner once it will connect no more readers itself, such
+	 * as when the console is closed.
+	 */
+	void release() {
+		synchronized (this.lock) {
+			this.released = true;
+			closeSpillIfUnused();
+		}
+	}
+
+	/**
+	 * @return the file spilled to, or null if nothing has been spilled or the
+	 *         file has been deleted.
+	 */
+	@VisibleForTesting
+	File spillFile() {
+		synchronized (this.lock) {
+			return this.spill == null ? null : this.spillFile;
+		}
+	}
+
+	private void opened() {
+		synchronized (this.lock) {
+			this.readers++;
+		}
+	}
+
+	private void closed() {
+		synchronized (this.lock) {
+			this.readers--;
+			closeSpillIfUnused();
+		}
+	}
+
+	/**
+	 * Must hold the lock.
+	 */
+	private void closeSpillIfUnused() {
+		if (this.copying || !this.released || this.readers > 0 || this.spill == null) {
+			return;
+		}
+
+		try {
+			this.spill.close();
+		} catch (final IOException e) {
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Closing spill file of " + this.streamName, e);
+			}
+		}
+		if (!this.spillFile.delete()) {
+			LOGGER.debug("Could not delete spill file {}", this.spillFile);
+		}
+		this.spill = null;
+	}
+
+	private void append(final byte[] buffer, final int count) throws IOException {
+		synchronized (this.lock) {
+			int offset = 0;
+			while (offset < count) {
+				final ByteBuffer segment = writableSegment();
+				final int length = Math.min(count - offset, segment.remaining());
+				segment.put(buffer, offset, length);
+				offset += length;
+				this.length += length;
+			}
+
+			while (this.length - this.memoryStart > this.capacity && this.segments.size() > 1) {
+				spillOldestSegment();
+			}
+		}
+	}
+
+	private ByteBuffer writableSegment() {
+		if (!this.segments.isEmpty()) {
+			final ByteBuffer last = this.segments.get(this.segments.size() - 1);
+			if (last.hasRemaining()) {
+				return last;
+			}
+		}
+
+		final ByteBuffer segment;
+		if (this.spareSegment != null) {
+			segment = this.spareSegment;
+			this.spareSegment = null;
+		} else {
+			segment = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+		}
+		this.segments.add(segment);
+		return segment;
+	}
+
+	private void spillOldestSegment() throws IOException {
+		if (this.spill == null) {
+			this.spillFile = createSpillFile(this.streamName);
+			this.spill = new RandomAccessFile(this.spillFile,
+					"rw").getChannel();
+		}
+
+		final ByteBuffer segment = this.segments.remove(0);
+		final ByteBuffer content = segment.duplicate();
+		content.flip();
+		while (content.hasRemaining()) {
+			this.spill.write(content, this.memoryStart + content.position());
+		}
+
+		this.memoryStart += SEGMENT_SIZE;
+		segment.clear();
+		this.spareSegment = segment;
+	}
+
+	/**
+	 * Reads from an absolute position in the captured stream.
+	 * 
+	 * @return the number of bytes read, or {@link #EOF} if nothing beyond
+	 *         position has been captured yet.
+	 */
+	private int read(final long position, final byte[] buffer, final int offset, final int length)
+			throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+
+		final long spilled;
+		final FileChannel spill;
+		synchronized (this.lock) {
+			if (position >= this.length) {
+				return EOF;
+			}
+
+			if (position >= this.memoryStart) {
+				final long relative = position - this.memoryStart;
+				final ByteBuffer segment = this.segments.get((int) (relative / SEGMENT_SIZE))
+						.duplicate();
+				final int segmentOffset = (int) (relative % SEGMENT_SIZE);
+				final int count = Math.min(length, segment.position() - segmentOffset);
+				segment.position(segmentOffset);
+				segment.get(buffer, offset, count);
+				return count;
+			}
+
+			spilled = this.memoryStart;
+			spill = this.spill;
+		}
+
+		if (spill == null) {
+			throw new IOException("The start of " + this.streamName
+					+ " was spilled to disk and has since been released");
+		}
+
+		/*
+		 * Spilled content never changes, so it can be read without holding the
+		 * lock.
+		 */
+		final int count = (int) Math.min(length, spilled - position);
+		return spill.read(ByteBuffer.wrap(buffer, offset, count), position);
+	}
+
+	private long available(final long position) {
+		synchronized (this.lock) {
+			return Math.max(0, this.length - position);
+		}
+	}
+
+	/**
+	 * Deleted once released, or on exit should the capture never be.
+	 */
+	private static File createSpillFile(final String streamName) throws IOException {
+		final File file = JintUtil.createTempFile(IoCopyToMemoryMultiplexerTask.class,
+			streamName);
+		if (JintUtil.shouldDeleteConsoleFilesOnExit()) {
+			file.deleteOnExit();
+		}
+		return file;
+	}
+
+	/**
+	 * Reads the captured stream from the beginning. Like a file, reaching the
+	 * end of what has been captured so far yields {@link #EOF}.
+	 */
+	private final class MemoryInputStream
+		extends InputStream {
+
+		private long position;
+		private boolean closed = false;
+
+		MemoryInputStream(final long position) {
+			this.position = position;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] buffer = new byte[1];
+			if (read(buffer, 0, 1) == EOF) {
+				return EOF;
+			}
+			return buffer[0] & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			ensureOpen();
+			final int count = IoCopyToMemoryMultiplexerTask.this.read(this.position, buffer, offset, length);
+			if (count > 0) {
+				this.position += count;
+			}
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			ensureOpen();
+			return (int) Math.min(Integer.MAX_VALUE, IoCopyToMemoryMultiplexerTask.this.available(this.position));
+		}
+
+		@Override
+		public void close() {
+			if (!this.closed) {
+				this.closed = true;
+				closed();
+			}
+		}
+
+		private void ensureOpen() throws IOException {
+			if (this.closed) {
+				throw new IOException("Stream Closed");
+			}
+		}
+	}
+
+	private final class MemoryLineSource
+		implements CapturedLines.Source {
+
+		private boolean closed = false;
+
+		@Override
+		public void refresh(final LineIndex index) {
+			// The index is maintained as the stream is copied
+		}
+
+		@Override
+		public boolean isEndOfFile() {
+			return IoCopyToMemoryMultiplexerTask.this.signal.isEndOfFile();
+		}
+
+		@Override
+		public int read(final long position, final byte[] buffer, final int offset, final int length)
+				throws IOException {
+			return IoCopyToMemoryMultiplexerTask.this.read(position, buffer, offset, length);
+		}
+
+		@Override
+		public void close() {
+			if (!this.closed) {
+				this.closed = true;
+				closed();
+			}
+		}
+	}
+}
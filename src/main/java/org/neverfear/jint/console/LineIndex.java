@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.util.Arrays;
+
+/**
+ * Records the offset at which each line of a captured stream starts, so that
+ * individual lines can be found without rescanning the stream. Offsets are
+ * held in a single growable long array, costing eight bytes per line.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class LineIndex {
+
+	private static final byte NEW_LINE = '\n';
+	private static final int INITIAL_CAPACITY = 0x400;
+
+	/**
+	 * The first line always starts at zero. Every other entry is the offset
+	 * just after a new line.
+	 */
+	private long[] starts = new long[INITIAL_CAPACITY];
+	private int startCount = 1;
+	private long length = 0;
+
+	/**
+	 * Indexes bytes appended to the end of the stream.
+	 * 
+	 * @param buffer the bytes appended
+	 * @param offset the offset of the first byte in buffer
+	 * @param count the number of bytes
+	 */
+	public synchronized void append(final byte[] buffer, final int offset, final int count) {
+		for (int index = offset; index < offset + count; index++) {
+			if (buffer[index] == NEW_LINE) {
+				addStart(this.length + (index - offset) + 1);
+			}
+		}
+		this.length += count;
+	}
+
+	private void addStart(final long start) {
+		if (this.startCount == this.starts.length) {
+			this.starts = Arrays.copyOf(this.starts, this.starts.length * 2);
+		}
+		this.starts[this.startCount++] = start;
+	}
+
+	/**
+	 * @return the number of bytes indexed.
+	 */
+	public synchronized long length() {
+		return this.length;
+	}
+
+	/**
+	 * @return the number of lines terminated by a new line.
+	 */
+	public synchronized int terminatedLineCount() {
+		return this.startCount - 1;
+	}
+
+	/**
+	 * @param line the zero based line number, at most
+	 *        {@link #terminatedLineCount()}
+	 * @return the offset of the first byte of the line
+	 */
+	public synchronized long start(final int line) {
+		if (line < 0 || line >= this.startCount) {
+			throw new IndexOutOfBoundsException("Line " + line + " of " + this.startCount);
+		}
+		return this.starts[line];
+	}
+
+	/**
+	 * @param position an offset into the stream
+	 * @return the zero based number of the line that contains position
+	 */
+	public synchronized int lineAt(final long position) {
+		final int found = Arrays.binarySearch(this.starts,
+			0,
+			this.startCount,
+			position);
+		if (found >= 0) {
+			return found;
+		}
+		// The line before the insertion point
+		return -found - 2;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "LineIndex [lines=" + this.startCount + ", length=" + this.length + "]";
+	}
+}
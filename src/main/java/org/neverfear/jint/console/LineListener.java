@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.neverfear.jint.api.ConsoleListener;
+
+/**
+ * A {@link ConsoleListener} that is called back once per line rather than per
+ * chunk. Like {@link java.io.BufferedReader} line terminators are not included,
+ * the platform default charset is used and a trailing unterminated line is
+ * delivered at the end of file.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public abstract class LineListener
+	implements ConsoleListener {
+
+	private static final byte NEW_LINE = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int INITIAL_CAPACITY = 0x100;
+
+	private final Charset charset = Charset.defaultCharset();
+
+	/**
+	 * The start of a line received in an earlier chunk.
+	 */
+	private byte[] partial = new byte[INITIAL_CAPACITY];
+	private int partialLength = 0;
+
+	/**
+	 * Called with each line in order.
+	 * 
+	 * @param line the line, without its terminator
+	 */
+	protected abstract void onLine(String line);
+
+	/**
+	 * Called once the stream has ended and every line has been delivered. Does
+	 * nothing by default.
+	 */
+	protected void onEnd() {
+		// Nothing by default
+	}
+
+	@Override
+	public final void onData(final byte[] buffer, final int offset, final int length) {
+		int lineStart = offset;
+		for (int index = offset; index < offset + length; index++) {
+			if (buffer[index] == NEW_LINE) {
+				if (this.partialLength == 0) {
+					deliver(buffer, lineStart, index - lineStart);
+				} else {
+					keep(buffer, lineStart, index - lineStart);
+					deliver(this.partial, 0, this.partialLength);
+					this.partialLength = 0;
+				}
+				lineStart = index + 1;
+			}
+		}
+		keep(buffer, lineStart, offset + length - lineStart);
+	}
+
+	@Override
+	public final void onEndOfFile() {
+		if (this.partialLength > 0) {
+			deliver(this.partial, 0, this.partialLength);
+			this.partialLength = 0;
+		}
+		onEnd();
+	}
+
+	private void keep(final byte[] buffer, final int offset, final int length) {
+		if (this.partialLength + length > this.partial.length) {
+			this.partial = Arrays.copyOf(this.partial, Math.max(this.partial.length * 2, this.partialLength + length));
+		}
+		System.arraycopy(buffer, offset, this.partial, this.partialLength, length);
+		this.partialLength += length;
+	}
+
+	private void deliver(final byte[] buffer, final int offset, final int length) {
+		int end = length;
+		if (end > 0 && buffer[offset + end - 1] == CARRIAGE_RETURN) {
+			end--;
+		}
+		onLine(new String(buffer,
+				offset,
+				end,
+				this.charset));
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A read only, memory mapped view of a capture file. The file is mapped in
+ * segments of {@link #SEGMENT_SIZE} bytes; segments that are full are mapped
+ * once, while the last segment is remapped whenever {@link #refresh()} finds
+ * that the file has grown.
+ * </p>
+ * 
+ * <p>
+ * Unlike the streams returned by {@link ConsoleCapture#connect()} this does not
+ * copy the content into the heap, which makes it suitable for inspecting large
+ * captures once a process has finished. Users are responsible for closing this
+ * view. The buffers it has handed out are released by the garbage collector.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class MappedCapture
+	implements Closeable {
+
+	static final int SEGMENT_SIZE = 0x4000000;
+
+	private final File file;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	private long length = 0;
+
+	public MappedCapture(final File file) throws IOException {
+		this.file = file;
+		this.randomAccessFile = new RandomAccessFile(file,
+				"r");
+		this.channel = this.randomAccessFile.getChannel();
+		refresh();
+	}
+
+	/**
+	 * Grows the mapping to cover everything written to the file so far.
+	 * 
+	 * @return the number of bytes now mapped.
+	 * @throws IOException
+	 */
+	public synchronized long refresh() throws IOException {
+		final long size = this.channel.size();
+		if (size <= this.length) {
+			return this.length;
+		}
+
+		int index = (int) (this.length / SEGMENT_SIZE);
+		if (index < this.segments.size()) {
+			// The last segment was only partially mapped
+			this.segments.remove(index);
+		}
+		for (long position = (long) index * SEGMENT_SIZE; position < size; position += SEGMENT_SIZE, index++) {
+			final long segmentLength = Math.min(SEGMENT_SIZE,
+				size - position);
+			this.segments.add(this.channel.map(MapMode.READ_ONLY,
+				position,
+				segmentLength));
+		}
+		this.length = size;
+		return this.length;
+	}
+
+	/**
+	 * @return the number of bytes mapped as of the last {@link #refresh()}.
+	 */
+	public synchronized long length() {
+		return this.length;
+	}
+
+	/**
+	 * Refreshes the mapping and returns views over the whole file in order.
+	 * Each view has its own position and limit so callers may consume them
+	 * freely.
+	 * 
+	 * @return read only views of the file
+	 * @throws IOException
+	 */
+	public synchronized List<ByteBuffer> buffers() throws IOException {
+		refresh();
+		final List<ByteBuffer> views = new ArrayList<>(this.segments.size());
+		for (final MappedByteBuffer segment : this.segments) {
+			views.add(segment.asReadOnlyBuffer());
+		}
+		return Collections.unmodifiableList(views);
+	}
+
+	/**
+	 * Refreshes the mapping if needed and returns a view over the given range.
+	 * A range that falls within a single segment is a view of the existing
+	 * mapping; a range that straddles segments is mapped separately.
+	 * 
+	 * @param position the offset of the first byte
+	 * @param size the number of bytes
+	 * @return a read only view of the range
+	 * @throws IOException
+	 * @throws IndexOutOfBoundsException if the range is beyond the end of the
+	 *         file
+	 */
+	public synchronized ByteBuffer slice(final long position, final int size) throws IOException {
+		if (position < 0 || size < 0) {
+			throw new IndexOutOfBoundsException("position and size must not be negative");
+		}
+		if (position + size > this.length && position + size > refresh()) {
+			throw new IndexOutOfBoundsException("Range " + position + "+" + size + " is beyond the end of "
+					+ this.file + " (" + this.length + " bytes)");
+		}
+
+		if (size == 0) {
+			return ByteBuffer.allocate(0).asReadOnlyBuffer();
+		}
+
+		final int index = (int) (position / SEGMENT_SIZE);
+		final int offset = (int) (position % SEGMENT_SIZE);
+		if (offset + size <= SEGMENT_SIZE) {
+			final ByteBuffer view = this.segments.get(index).asReadOnlyBuffer();
+			view.position(offset);
+			view.limit(offset + size);
+			return view.slice();
+		}
+		return this.channel.map(MapMode.READ_ONLY,
+			position,
+			size).asReadOnlyBuffer();
+	}
+
+	public File file() {
+		return this.file;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.segments.clear();
+		this.randomAccessFile.close();
+	}
+
+	@Override
+	public String toString() {
+		return "MappedCapture [file=" + this.file + ", length=" + length() + "]";
+	}
+}
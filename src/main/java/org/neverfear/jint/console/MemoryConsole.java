@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+
+import org.neverfear.jint.api.Console;
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleMark;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.util.JintExecutors;
+import org.neverfear.jint.util.JintUtil;
+
+/**
+ * <p>
+ * Captures stdout and stderr in off-heap memory rather than in files. Readers
+ * of {@link #output()} and {@link #error()} consume the captured bytes directly,
+ * which avoids writing to and re-reading from the file system for short-lived
+ * applications.
+ * </p>
+ * 
+ * <p>
+ * Only the most recent {@link JintUtil#consoleMemoryCapacity()} bytes of each
+ * stream are held in memory, anything older is spilled to disk. Standard input
+ * is not recorded.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ */
+public final class MemoryConsole
+	implements Console, Closeable {
+
+	private final OutputStream stdin;
+
+	private final IoCopyToMemoryMultiplexerTask stdOutCapture;
+	private final IoCopyToMemoryMultiplexerTask stdErrCapture;
+
+	/**
+	 * 
+	 * @param stdin the real stdin
+	 * @param stdout the real stdout
+	 * @param stderr the real stderr
+	 * @param capacity the number of bytes of each stream to hold in memory
+	 * @param executor
+	 */
+	MemoryConsole(final OutputStream stdin,
+			final InputStream stdout,
+			final InputStream stderr,
+			final long capacity,
+			final ExecutorService executor) {
+		/*
+		 * These tasks will terminate by themselves once the streams are at EOF
+		 * or are closed
+		 */
+		final IoCopyToMemoryMultiplexerTask stdOutMultiplexer = new IoCopyToMemoryMultiplexerTask(stdout,
+				"stdout",
+				capacity);
+		final IoCopyToMemoryMultiplexerTask stdErrMultiplexer = new IoCopyToMemoryMultiplexerTask(stderr,
+				"stderr",
+				capacity);
+		this.stdOutCapture = stdOutMultiplexer;
+		this.stdErrCapture = stdErrMultiplexer;
+
+		this.stdin = stdin;
+		executor.execute(stdOutMultiplexer);
+		executor.execute(stdErrMultiplexer);
+	}
+
+	/**
+	 * Copies stdout and stderr using the executor shared by every console, see
+	 * {@link JintExecutors#io()}.
+	 * 
+	 * @param stdin the real stdin
+	 * @param stdout the real stdout
+	 * @param stderr the real stderr
+	 */
+	public MemoryConsole(final OutputStream stdin,
+			final InputStream stdout,
+			final InputStream stderr) {
+		this(stdin,
+				stdout,
+				stderr,
+				JintUtil.consoleMemoryCapacity(),
+				JintExecutors.io());
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream output() throws IOException {
+		return this.stdOutCapture.connect();
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream error() throws IOException {
+		return this.stdErrCapture.connect();
+	}
+
+	/**
+	 * The listener is called back by the thread copying stdout.
+	 */
+	@Override
+	public ConsoleSubscription subscribeOutput(final ConsoleListener listener) throws IOException {
+		return this.stdOutCapture.subscribe(listener);
+	}
+
+	/**
+	 * The listener is called back by the thread copying stderr.
+	 */
+	@Override
+	public ConsoleSubscription subscribeError(final ConsoleListener listener) throws IOException {
+		return this.stdErrCapture.subscribe(listener);
+	}
+
+	@Override
+	public ConsoleMark mark() {
+		return new ConsoleMark(this.stdOutCapture.length(),
+				this.stdErrCapture.length());
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream output(final ConsoleMark mark) throws IOException {
+		return this.stdOutCapture.connect(mark.outputPosition());
+	}
+
+	/**
+	 * Users are responsible for closing this stream.
+	 */
+	@Override
+	public InputStream error(final ConsoleMark mark) throws IOException {
+		return this.stdErrCapture.connect(mark.errorPosition());
+	}
+
+	/**
+	 * Looks up lines of stdout without reading it from the start. Users are
+	 * responsible for closing the lines.
+	 * 
+	 * @return the lines of stdout
+	 * @throws IOException
+	 */
+	public CapturedLines outputLines() throws IOException {
+		return this.stdOutCapture.lines();
+	}
+
+	/**
+	 * Looks up lines of stderr without reading it from the start. Users are
+	 * responsible for closing the lines.
+	 * 
+	 * @return the lines of stderr
+	 * @throws IOException
+	 */
+	public CapturedLines errorLines() throws IOException {
+		return this.stdErrCapture.lines();
+	}
+
+	/**
+	 * Users should avoid closing this stream themselves and use
+	 * {@link #close()} instead.
+	 */
+	@Override
+	public OutputStream input() {
+		return this.stdin;
+	}
+
+	/**
+	 * Closes stdin. stdout and stderr are kept open and the user of this class
+	 * must close them once there's no more data to be read, at which point
+	 * anything spilled to disk is deleted.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			this.stdin.close();
+		} finally {
+			this.stdOutCapture.release();
+			this.stdErrCapture.release();
+		}
+	}
+
+	public static MemoryConsole fromProcess(final Process process) {
+		return new MemoryConsole(process.getOutputStream(),
+				process.getInputStream(),
+				process.getErrorStream());
+	}
+}
@@ -16,7 +16,6 @@
 package org.neverfear.jint.console;
 
 import static java.lang.Thread.interrupted;
-import static java.lang.Thread.yield;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,7 +27,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * called, at this point the {@link InputStream} is considered at the
  * end-of-file.
  * 
- * This class initialises the
+ * When the underlying stream is exhausted readers park on an
+ * {@link AppendSignal} until the writer appends more data or finishes. Streams
+ * constructed without a signal fall back to re-checking the underlying stream
+ * periodically.
  * 
  * @author doug@neverfear.org
  * 
@@ -41,7 +43,22 @@ public final class PersistentInputStream
 	 */
 	public static final int EOF = -1;
 
+	/**
+	 * How long to park before re-checking the underlying stream when a writer
+	 * is expected to signal appends. This only bounds the cost of a missed
+	 * signal.
+	 */
+	private static final long SIGNALLED_AWAIT_MILLIS = 1000;
+
+	/**
+	 * How long to park before re-checking the underlying stream when nobody
+	 * will signal appends.
+	 */
+	private static final long UNSIGNALLED_AWAIT_MILLIS = 10;
+
 	private final InputStream input;
+	private final AppendSignal signal;
+	private final long awaitMillis;
 
 	/**
 	 * EOF will be returned once the total read bytes is equal or greater than
@@ -55,7 +72,47 @@ public final class PersistentInputStream
 	 * @param input
 	 */
 	public PersistentInputStream(final InputStream input) {
+		this(input,
+				new AppendSignal(),
+				UNSIGNALLED_AWAIT_MILLIS,
+				0);
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @param signal signalled by the writer whenever it appends to, or
+	 *        finishes writing, the content underlying input.
+	 */
+	public PersistentInputStream(final InputStream input, final AppendSignal signal) {
+		this(input,
+				signal,
+				0);
+	}
+
+	/**
+	 * 
+	 * @param input positioned at the given position of the content
+	 * @param signal signalled by the writer whenever it appends to, or
+	 *        finishes writing, the content underlying input.
+	 * @param position the number of bytes of the content that input has
+	 *        already skipped.
+	 */
+	public PersistentInputStream(final InputStream input, final AppendSignal signal, final long position) {
+		this(input,
+				signal,
+				SIGNALLED_AWAIT_MILLIS,
+				position);
+	}
+
+	private PersistentInputStream(final InputStream input,
+			final AppendSignal signal,
+			final long awaitMillis,
+			final long position) {
 		this.input = input;
+		this.signal = signal;
+		this.awaitMillis = awaitMillis;
+		this.totalRead.set(position);
 	}
 
 	/**
@@ -91,7 +148,12 @@ public final class PersistentInputStream
 	public int read(final byte[] b, final int off, final int len) throws IOException {
 		int count = EOF;
 		while ((count = doRead(b, off, len)) == EOF) {
-			if (this.totalRead.get() >= this.readLimit) {
+			final long position = this.totalRead.get();
+			if (position >= this.readLimit) {
+				return EOF;
+			}
+
+			if (this.signal.isEndOfFile() && position >= this.signal.length()) {
 				return EOF;
 			}
 
@@ -99,7 +161,11 @@ public final class PersistentInputStream
 				throw new InterruptedIOException();
 			}
 
-			yield();
+			try {
+				this.signal.awaitAppend(position, this.awaitMillis);
+			} catch (final InterruptedException e) {
+				throw new InterruptedIOException();
+			}
 		}
 		this.totalRead.addAndGet(count);
 		return count;
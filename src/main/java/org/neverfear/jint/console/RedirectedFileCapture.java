@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.neverfear.jint.api.ConsoleListener;
+import org.neverfear.jint.api.ConsoleSubscription;
+import org.neverfear.jint.util.JintExecutors;
+import org.neverfear.jint.util.ProcessUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Captures a stream that a process writes directly into a file. Nothing in this
+ * JVM copies the data, so readers discover appends by checking the length of
+ * the file and discover the end of file by the process having exited.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class RedirectedFileCapture
+	implements ConsoleCapture {
+
+	private final Process process;
+	private final File file;
+	private final AppendSignal signal;
+	private final LineIndex lineIndex = new LineIndex();
+
+	private final Object publisherLock = new Object();
+	private ConsolePublisher publisher = null;
+
+	RedirectedFileCapture(final Process process, final File file) {
+		this.process = process;
+		this.file = file;
+		this.signal = new FileLengthSignal(process,
+				file);
+	}
+
+	@Override
+	public InputStream connect() throws IOException {
+		return connect(0);
+	}
+
+	@Override
+	public InputStream connect(final long position) throws IOException {
+		return new PersistentInputStream(IoCopyToFileMultiplexerTask.openAt(this.file,
+			position),
+				this.signal,
+				position);
+	}
+
+	/**
+	 * The signal only learns of appends when readers wait on it, so the
+	 * length of the file is used instead.
+	 */
+	@Override
+	public long length() {
+		return this.file.length();
+	}
+
+	/**
+	 * Nothing copies the file, so the lines are indexed when they are looked
+	 * up. Each byte is still only scanned once.
+	 */
+	@Override
+	public CapturedLines lines() throws IOException {
+		return new CapturedLines(this.lineIndex,
+				new RedirectedLineSource());
+	}
+
+	/**
+	 * Nothing copies the file, so the first subscriber starts a task on the
+	 * shared executor that tails the file and publishes it to every
+	 * subscriber.
+	 */
+	@Override
+	public ConsoleSubscription subscribe(final ConsoleListener listener) throws IOException {
+		final ConsolePublisher publisher;
+		synchronized (this.publisherLock) {
+			if (this.publisher == null) {
+				final ConsolePublisher created = new ConsolePublisher(this);
+				JintExecutors.io().execute(new TailTask(connect(),
+						created));
+				this.publisher = created;
+			}
+			publisher = this.publisher;
+		}
+		return publisher.subscribe(listener);
+	}
+
+	private static final class TailTask
+		implements Runnable {
+
+		private static final Logger LOGGER = LoggerFactory.getLogger(TailTask.class);
+
+		private static final int EOF = -1;
+		private static final int BUFFER_SIZE = 0x1000;
+
+		private final InputStream input;
+		private final ConsolePublisher publisher;
+
+		TailTask(final InputStream input, final ConsolePublisher publisher) {
+			this.input = input;
+			this.publisher = publisher;
+		}
+
+		@Override
+		public void run() {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			try (InputStream from = this.input) {
+				int readCount;
+				while ((readCount = from.read(buffer)) != EOF) {
+					this.publisher.publish(buffer, 0, readCount);
+				}
+			} catch (final IOException e) {
+				if (LOGGER.isTraceEnabled()) {
+					LOGGER.trace("Task to tail a redirected file", e);
+				}
+			} finally {
+				this.publisher.endOfFile();
+			}
+		}
+	}
+
+	private final class RedirectedLineSource
+		extends FileLineSource {
+
+		private static final int BUFFER_SIZE = 0x2000;
+
+		RedirectedLineSource() throws IOException {
+			super(RedirectedFileCapture.this.file,
+					RedirectedFileCapture.this.signal);
+		}
+
+		@Override
+		public void refresh(final LineIndex index) throws IOException {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			synchronized (index) {
+				final long size = channel().size();
+				while (index.length() < size) {
+					final int length = (int) Math.min(buffer.length,
+						size - index.length());
+					final int count = read(index.length(),
+						buffer,
+						0,
+						length);
+					if (count <= 0) {
+						break;
+					}
+					index.append(buffer,
+						0,
+						count);
+				}
+			}
+		}
+
+		@Override
+		public boolean isEndOfFile() {
+			return !ProcessUtil.isAlive(RedirectedFileCapture.this.process);
+		}
+	}
+
+	/**
+	 * Nobody notifies this signal, so waiting readers re-check the file
+	 * periodically.
+	 */
+	private static final class FileLengthSignal
+		extends AppendSignal {
+
+		/**
+		 * How often waiting readers re-check the length of the file.
+		 */
+		private static final long POLL_MILLIS = 10;
+
+		private final Process process;
+		private final File file;
+
+		FileLengthSignal(final Process process, final File file) {
+			this.process = process;
+			this.file = file;
+		}
+
+		@Override
+		public synchronized void awaitAppend(final long position, final long timeoutMillis)
+				throws InterruptedException {
+			refresh();
+			super.awaitAppend(position, Math.min(timeoutMillis, POLL_MILLIS));
+			refresh();
+		}
+
+		private void refresh() {
+			/*
+			 * Check the process before the file, so that once the process is
+			 * known to have exited the length read is final.
+			 */
+			final boolean alive = ProcessUtil.isAlive(this.process);
+			final long appended = this.file.length() - length();
+			if (appended > 0) {
+				appended(appended);
+			}
+			if (!alive) {
+				endOfFile();
+			}
+		}
+	}
+}
@@ -15,28 +15,43 @@
  */
 package org.neverfear.jint.location.local;
 
+import java.io.File;
 import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.concurrent.ExecutionException;
 
 import org.neverfear.jint.api.ApplicationException;
 import org.neverfear.jint.api.Console;
+import org.neverfear.jint.api.ConsoleMode;
 import org.neverfear.jint.api.Description;
 import org.neverfear.jint.api.Handle;
 import org.neverfear.jint.api.Location;
 import org.neverfear.jint.console.FilePipedConsole;
+import org.neverfear.jint.console.MemoryConsole;
+import org.neverfear.jint.util.JintExecutors;
 import org.neverfear.jint.util.ProcessUtil;
 import org.neverfear.jint.util.RuntimeUtil;
 import org.neverfear.jint.util.RuntimeUtil.ShutdownHook;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
 final class LocalHandle
 	implements Handle {
 
 	private final Location location;
 	private final ProcessBuilder builder;
+	private final ConsoleMode consoleMode;
 
 	private transient Process process = null;
 	private transient boolean started = false;
 
-	private transient FilePipedConsole console;
+	private transient Console console;
+
+	/**
+	 * Completed by a {@link Reaper} when the process started last exits.
+	 */
+	private transient SettableFuture<Integer> termination = null;
 
 	private transient boolean hookSet = false;
 
@@ -44,6 +59,7 @@ final class LocalHandle
 		super();
 		this.location = location;
 		this.builder = createBuilder(description);
+		this.consoleMode = consoleMode(description);
 	}
 
 	private static ProcessBuilder createBuilder(final Description description) {
@@ -60,6 +76,17 @@ final class LocalHandle
 		return builder;
 	}
 
+	private static ConsoleMode consoleMode(final Description description) {
+		if (description.isIOInherited() || description.consoleMode() == null) {
+			/*
+			 * Inherited IO leaves nothing to redirect, so fall back to piping
+			 * which yields empty streams.
+			 */
+			return ConsoleMode.PIPED;
+		}
+		return description.consoleMode();
+	}
+
 	private void initHook() {
 		RuntimeUtil.addShutdownHook(new ShutdownHook() {
 
@@ -78,8 +105,23 @@ final class LocalHandle
 				if (!this.hookSet) {
 					initHook();
 				}
-				this.process = this.builder.start();
-				this.console = FilePipedConsole.fromProcess(this.process);
+				switch (this.consoleMode) {
+					case REDIRECTED:
+						startRedirected();
+						break;
+					case MEMORY:
+						this.process = this.builder.start();
+						this.console = MemoryConsole.fromProcess(this.process);
+						break;
+					default:
+						this.process = this.builder.start();
+						this.console = FilePipedConsole.fromProcess(this.process);
+						break;
+				}
+				this.termination = SettableFuture.create();
+				JintExecutors.io()
+						.execute(new Reaper(this.process,
+								this.termination));
 				this.started = true;
 			} catch (final IOException e) {
 				throw new ApplicationException(e);
@@ -87,6 +129,22 @@ final class LocalHandle
 		}
 	}
 
+	/**
+	 * Each start captures into new files, so the redirection is set up afresh.
+	 */
+	private void startRedirected() throws IOException {
+		final File outputFile = FilePipedConsole.createDestinationFile("stdout");
+		final File errorFile = FilePipedConsole.createDestinationFile("stderr");
+
+		this.builder.redirectOutput(Redirect.appendTo(outputFile));
+		if (!this.builder.redirectErrorStream()) {
+			this.builder.redirectError(Redirect.appendTo(errorFile));
+		}
+
+		this.process = this.builder.start();
+		this.console = FilePipedConsole.fromRedirectedProcess(this.process, outputFile, errorFile);
+	}
+
 	@Override
 	public void stop() throws ApplicationException {
 		if (this.started) {
@@ -116,6 +174,16 @@ final class LocalHandle
 		}
 	}
 
+	@Override
+	public ListenableFuture<Integer> termination() {
+		ensureStartedAtLeastOnce();
+		return this.termination;
+	}
+
+	/**
+	 * Answered from the termination signal rather than by asking the process
+	 * for an exit value it may not yet have.
+	 */
 	@Override
 	public boolean isRunning() {
 		if (this.process == null) {
@@ -126,7 +194,7 @@ final class LocalHandle
 			return false;
 		}
 
-		return ProcessUtil.isAlive(this.process);
+		return !this.termination.isDone();
 	}
 
 	@Override
@@ -139,9 +207,18 @@ final class LocalHandle
 		return this.location;
 	}
 
+	/**
+	 * Waits on the termination signal, rather than the process, so that
+	 * {@link #isRunning()} agrees once this returns.
+	 */
 	@Override
 	public void await() throws InterruptedException {
-		this.process.waitFor();
+		try {
+			this.termination.get();
+		} catch (final ExecutionException e) {
+			// The reaper was interrupted rather than the process exiting
+			this.process.waitFor();
+		}
 	}
 
 	@Override
@@ -155,4 +232,29 @@ final class LocalHandle
 		return ProcessUtil.toCommand(this.builder.command());
 	}
 
+	/**
+	 * Waits for a process to exit on the shared IO executor, so that anything
+	 * waiting on the process learns of its exit as soon as it happens.
+	 */
+	private static final class Reaper
+		implements Runnable {
+
+		private final Process process;
+		private final SettableFuture<Integer> termination;
+
+		Reaper(final Process process, final SettableFuture<Integer> termination) {
+			this.process = process;
+			this.termination = termination;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.termination.set(this.process.waitFor());
+			} catch (final InterruptedException e) {
+				this.termination.setException(e);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.notify;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Used by an application started by jint to notify it of the state of the
+ * application, see {@link NotifyChannel}. When the application was not given
+ * a channel every notification is silently dropped, so it need not know
+ * whether it is being run by jint.
+ * 
+ * <pre>
+ * try (Notifier notifier = Notifier.fromEnvironment()) {
+ * 	notifier.status(&quot;Loading cache&quot;);
+ * 	...
+ * 	notifier.ready();
+ * 	serve();
+ * 	notifier.stopping();
+ * }
+ * </pre>
+ * 
+ * The connection is held open until closed, as a channel considers an
+ * application that has disconnected to be no longer ready. This class depends
+ * only on the JDK so it may be used by applications without jint's
+ * dependencies.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class Notifier
+	implements Closeable {
+
+	private final String host;
+	private final int port;
+
+	/**
+	 * Guarded by this.
+	 */
+	private Socket socket = null;
+	private OutputStream output = null;
+
+	Notifier(final String address) {
+		if (address == null) {
+			this.host = null;
+			this.port = -1;
+		} else {
+			final int separator = address.lastIndexOf(':');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Expected host:port but was " + address);
+			}
+			this.host = address.substring(0,
+				separator);
+			this.port = Integer.parseInt(address.substring(separator + 1));
+		}
+	}
+
+	/**
+	 * @return a notifier for the channel named by
+	 *         {@value NotifyChannel#ENVIRONMENT_VARIABLE}
+	 */
+	public static Notifier fromEnvironment() {
+		return new Notifier(System.getenv(NotifyChannel.ENVIRONMENT_VARIABLE));
+	}
+
+	/**
+	 * @return true if notifications are sent, false if they are dropped
+	 */
+	public boolean isEnabled() {
+		return this.host != null;
+	}
+
+	public void ready() throws IOException {
+		send(NotifyChannel.READY,
+			"1");
+	}
+
+	/**
+	 * @param status free text describing what the application is doing
+	 */
+	public void status(final String status) throws IOException {
+		send(NotifyChannel.STATUS,
+			status.replace('\n',
+				' '));
+	}
+
+	public void stopping() throws IOException {
+		send(NotifyChannel.STOPPING,
+			"1");
+	}
+
+	private synchronized void send(final String key, final String value) throws IOException {
+		if (!isEnabled()) {
+			return;
+		}
+		if (this.socket == null) {
+			this.socket = new Socket(this.host,
+					this.port);
+			this.output = this.socket.getOutputStream();
+		}
+		this.output.write((key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+		this.output.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.socket != null) {
+			this.socket.close();
+			this.socket = null;
+			this.output = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [host=" + this.host + ", port=" + this.port + "]";
+	}
+}
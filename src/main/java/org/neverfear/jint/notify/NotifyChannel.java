@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.notify;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neverfear.jint.util.JintExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * <p>
+ * A loopback endpoint on which an application notifies jint of its state,
+ * much like sd_notify. The application is told where the endpoint is by the
+ * {@value #ENVIRONMENT_VARIABLE} environment variable, and notifies it using
+ * a {@link Notifier}.
+ * </p>
+ * 
+ * <p>
+ * Each message is a line of the form KEY=VALUE. {@value #READY},
+ * {@value #STATUS} and {@value #STOPPING} are understood and anything else is
+ * ignored. An application is ready from when it sends READY=1 until it sends
+ * STOPPING=1 or disconnects, so it should stay connected for as long as it
+ * runs.
+ * </p>
+ * 
+ * <p>
+ * Connections are numbered from 1 in the order they are accepted. A restarted
+ * application connects afresh, so waiting with {@link #readyAfter(long)} for
+ * a connection later than the one the previous run reported ready over
+ * ignores that run, even while its disconnection is yet to be noticed.
+ * </p>
+ * 
+ * <p>
+ * Connections are read on the shared IO executor, see
+ * {@link JintExecutors#io()}.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class NotifyChannel
+	implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NotifyChannel.class);
+
+	/**
+	 * Holds the address of the endpoint, as host:port.
+	 */
+	public static final String ENVIRONMENT_VARIABLE = "JINT_NOTIFY_SOCKET";
+
+	public static final String READY = "READY";
+	public static final String STATUS = "STATUS";
+	public static final String STOPPING = "STOPPING";
+
+	private final ServerSocketChannel server;
+
+	/**
+	 * Guarded by this.
+	 */
+	private SettableFuture<Void> ready = SettableFuture.create();
+	private Connection readyConnection = null;
+	private String status = null;
+	private long accepted = 0;
+
+	/**
+	 * Each waiting for a connection later than its value to report ready.
+	 * Guarded by this.
+	 */
+	private final Map<SettableFuture<Long>, Long> readyAfter = new LinkedHashMap<>();
+
+	private NotifyChannel(final ServerSocketChannel server) {
+		this.server = server;
+	}
+
+	/**
+	 * Opens a channel on an ephemeral loopback port and begins accepting
+	 * notifications.
+	 */
+	public static NotifyChannel open() throws IOException {
+		final ServerSocketChannel server = ServerSocketChannel.open();
+		try {
+			server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+					0));
+		} catch (final IOException e) {
+			server.close();
+			throw e;
+		}
+		final NotifyChannel channel = new NotifyChannel(server);
+		JintExecutors.io()
+				.execute(channel.new Acceptor());
+		return channel;
+	}
+
+	/**
+	 * @return the value for {@value #ENVIRONMENT_VARIABLE}
+	 */
+	public String address() {
+		final InetSocketAddress address = (InetSocketAddress) this.server.socket()
+				.getLocalSocketAddress();
+		return address.getAddress()
+				.getHostAddress() + ":" + address.getPort();
+	}
+
+	/**
+	 * @return a future completed once an application reports it is ready. Once
+	 *         it stops being ready, a new future is returned. To wait for a
+	 *         restarted application use {@link #readyAfter(long)} instead.
+	 */
+	public synchronized ListenableFuture<Void> ready() {
+		return this.ready;
+	}
+
+	/**
+	 * Like {@link #ready()}, but only a connection accepted after the given one
+	 * counts. Cancel the future to stop waiting.
+	 * 
+	 * @param connection the number of a connection, or 0 for any connection
+	 * @return a future completed with the number of the connection that
+	 *         reports it is ready
+	 */
+	public synchronized ListenableFuture<Long> readyAfter(final long connection) {
+		if (this.readyConnection != null && this.readyConnection.id > connection) {
+			return Futures.immediateFuture(this.readyConnection.id);
+		}
+
+		final SettableFuture<Long> ready = SettableFuture.create();
+		this.readyAfter.put(ready,
+			connection);
+		ready.addListener(new Runnable() {
+
+			@Override
+			public void run() {
+				forget(ready);
+			}
+		},
+			MoreExecutors.sameThreadExecutor());
+		return ready;
+	}
+
+	/**
+	 * @return the last status reported, or null if none has been
+	 */
+	public synchronized String status() {
+		return this.status;
+	}
+
+	/**
+	 * Stops accepting notifications. Anything waiting for the application to
+	 * become ready will wait indefinitely.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.server.close();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [address=" + address() + "]";
+	}
+
+	private synchronized void onMessage(final Connection connection, final String key, final String value) {
+		switch (key) {
+			case READY:
+				if ("1".equals(value)) {
+					this.readyConnection = connection;
+					this.ready.set(null);
+					readyOver(connection);
+				}
+				break;
+			case STATUS:
+				this.status = value;
+				break;
+			case STOPPING:
+				if ("1".equals(value)) {
+					notReady();
+				}
+				break;
+			default:
+				LOGGER.debug("Ignoring {}={}", key, value);
+				break;
+		}
+	}
+
+	/**
+	 * Must hold the lock. The futures are completed once out of the map, as
+	 * completing one forgets it.
+	 */
+	private void readyOver(final Connection connection) {
+		final List<SettableFuture<Long>> ready = new ArrayList<>();
+		final Iterator<Map.Entry<SettableFuture<Long>, Long>> waiting = this.readyAfter.entrySet()
+				.iterator();
+		while (waiting.hasNext()) {
+			final Map.Entry<SettableFuture<Long>, Long> entry = waiting.next();
+			if (connection.id > entry.getValue()) {
+				waiting.remove();
+				ready.add(entry.getKey());
+			}
+		}
+		for (final SettableFuture<Long> future : ready) {
+			future.set(connection.id);
+		}
+	}
+
+	private synchronized void forget(final SettableFuture<Long> ready) {
+		this.readyAfter.remove(ready);
+	}
+
+	private synchronized long nextConnection() {
+		return ++this.accepted;
+	}
+
+	private synchronized void onDisconnect(final Connection connection) {
+		if (this.readyConnection == connection) {
+			notReady();
+		}
+	}
+
+	private void notReady() {
+		this.readyConnection = null;
+		if (this.ready.isDone()) {
+			this.ready = SettableFuture.create();
+		}
+	}
+
+	private final class Acceptor
+		implements Runnable {
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final SocketChannel socket = NotifyChannel.this.server.accept();
+					JintExecutors.io()
+							.execute(new Connection(socket,
+									nextConnection()));
+				}
+			} catch (final ClosedChannelException e) {
+				// Closed, so stop accepting
+			} catch (final IOException e) {
+				LOGGER.error("Failed to accept notifications on " + NotifyChannel.this, e);
+			}
+		}
+	}
+
+	private final class Connection
+		implements Runnable {
+
+		private final SocketChannel socket;
+		private final long id;
+
+		Connection(final SocketChannel socket, final long id) {
+			this.socket = socket;
+			this.id = id;
+		}
+
+		@Override
+		public void run() {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(this.socket),
+					Charsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final int separator = line.indexOf('=');
+					if (separator > 0) {
+						onMessage(this,
+							line.substring(0,
+								separator),
+							line.substring(separator + 1));
+					}
+				}
+			} catch (final IOException e) {
+				LOGGER.debug("Notifying connection failed", e);
+			} finally {
+				onDisconnect(this);
+			}
+		}
+	}
+}
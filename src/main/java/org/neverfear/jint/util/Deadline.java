@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.util;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which something must finish, measured with
+ * {@link System#nanoTime()}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class Deadline {
+
+	private final long timeoutNanos;
+	private final long expiresAt;
+
+	private Deadline(final long timeoutNanos) {
+		this.timeoutNanos = timeoutNanos;
+		this.expiresAt = System.nanoTime() + timeoutNanos;
+	}
+
+	/**
+	 * @param timeout how long from now
+	 * @param unit the unit of timeout
+	 * @return a deadline timeout from now
+	 */
+	public static Deadline after(final long timeout, final TimeUnit unit) {
+		return new Deadline(unit.toNanos(timeout));
+	}
+
+	/**
+	 * @return the time remaining, or zero or less if the deadline has passed
+	 */
+	public long remainingNanos() {
+		return this.expiresAt - System.nanoTime();
+	}
+
+	public boolean hasExpired() {
+		return remainingNanos() <= 0;
+	}
+
+	/**
+	 * @return the timeout this deadline was created with
+	 */
+	public long timeoutNanos() {
+		return this.timeoutNanos;
+	}
+
+	/**
+	 * Interrupts the current thread if it is still waiting when the deadline
+	 * passes. The interrupt is scheduled on {@link JintExecutors#scheduler()}
+	 * rather than needing a thread per waiter. The caller must
+	 * {@link Alarm#cancel() cancel} the alarm once it stops waiting.
+	 * 
+	 * @return the alarm
+	 */
+	public Alarm interruptAtExpiry() {
+		return new Alarm(Thread.currentThread(),
+				remainingNanos());
+	}
+
+	@Override
+	public String toString() {
+		return "Deadline [timeoutNanos=" + this.timeoutNanos + ", remainingNanos=" + remainingNanos() + "]";
+	}
+
+	/**
+	 * Interrupts a thread at a deadline, unless cancelled first.
+	 */
+	public static final class Alarm
+		implements Runnable {
+
+		private final Thread thread;
+		private final ScheduledFuture<?> future;
+
+		private boolean cancelled = false;
+		private boolean fired = false;
+
+		Alarm(final Thread thread, final long delayNanos) {
+			this.thread = thread;
+			this.future = JintExecutors.scheduler()
+					.schedule(this,
+						delayNanos,
+						NANOSECONDS);
+		}
+
+		@Override
+		public synchronized void run() {
+			if (!this.cancelled) {
+				this.fired = true;
+				this.thread.interrupt();
+			}
+		}
+
+		/**
+		 * Must be called by the thread that set the alarm. If the alarm has
+		 * fired the interrupt it caused is cleared, so the thread can report
+		 * the timeout rather than an interruption. May be called more than
+		 * once.
+		 * 
+		 * @return true if the alarm fired
+		 */
+		public synchronized boolean cancel() {
+			if (!this.cancelled) {
+				this.cancelled = true;
+				this.future.cancel(false);
+				if (this.fired) {
+					Thread.interrupted();
+				}
+			}
+			return this.fired;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executors shared by every application started within this JVM. Sharing them
+ * keeps the number of threads proportional to the number of live applications
+ * rather than the number ever started.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class JintExecutors {
+
+	/**
+	 * How long an idle thread lingers before it is reclaimed.
+	 */
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	private static final ThreadFactory IO_THREAD_FACTORY = new ThreadFactoryBuilder()
+			.setDaemon(true)
+			.setNameFormat("jint-io-%d")
+			.build();
+
+	/**
+	 * Tasks submitted here block on process streams for the lifetime of the
+	 * process, which are not selectable. A bounded pool would therefore starve
+	 * so instead threads are created on demand and reclaimed once the streams
+	 * they serviced have drained.
+	 */
+	private static final ExecutorService IO = new ThreadPoolExecutor(0,
+			Integer.MAX_VALUE,
+			KEEP_ALIVE_SECONDS,
+			TimeUnit.SECONDS,
+			new SynchronousQueue<Runnable>(),
+			IO_THREAD_FACTORY);
+
+	private static final ThreadFactory SCHEDULER_THREAD_FACTORY = new ThreadFactoryBuilder()
+			.setDaemon(true)
+			.setNameFormat("jint-scheduler-%d")
+			.build();
+
+	/**
+	 * A single thread is enough as tasks only ever hand work to another
+	 * executor or complete a future.
+	 */
+	private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+	private JintExecutors() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Shared executor for tasks that block on IO, such as copying the console
+	 * of a process. Threads are daemons and are reclaimed when idle, so this
+	 * executor never needs to be shut down.
+	 * 
+	 * @return the shared IO executor.
+	 */
+	public static ExecutorService io() {
+		return IO;
+	}
+
+	/**
+	 * Shared scheduler for timed tasks, such as polling an application until it
+	 * is healthy. Tasks must not block; hand blocking work to {@link #io()}
+	 * instead. The thread is a daemon and is reclaimed when idle, so this
+	 * executor never needs to be shut down.
+	 * 
+	 * @return the shared scheduler.
+	 */
+	public static ScheduledExecutorService scheduler() {
+		return SCHEDULER;
+	}
+
+	private static ScheduledExecutorService createScheduler() {
+		final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+				SCHEDULER_THREAD_FACTORY);
+		scheduler.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+		scheduler.allowCoreThreadTimeOut(true);
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+}
@@ -22,8 +22,14 @@ public final class JintUtil {
 
 	public static final String PROPERTY_DELETE_CONSOLE_FILES_ON_EXIT = "jint.console.clean";
 	public static final String PROPERTY_TEMP_DIRECTORY = "jint.tempdir";
+	public static final String PROPERTY_CONSOLE_MEMORY_CAPACITY = "jint.console.memory.capacity";
+	public static final String PROPERTY_CONSOLE_WRITE_BATCH = "jint.console.write.batch";
+	public static final String PROPERTY_CONSOLE_WRITE_DELAY = "jint.console.write.delay";
 
 	private static final String DEFAULT_TEMP_DIRECTORY_NAME = "jint";
+	private static final long DEFAULT_CONSOLE_MEMORY_CAPACITY = 8 * 1024 * 1024;
+	private static final int DEFAULT_CONSOLE_WRITE_BATCH = 64 * 1024;
+	private static final long DEFAULT_CONSOLE_WRITE_DELAY = 10;
 
 	private JintUtil() {
 		throw new AssertionError();
@@ -80,4 +86,38 @@ public final class JintUtil {
 		return Boolean.getBoolean(PROPERTY_DELETE_CONSOLE_FILES_ON_EXIT);
 	}
 
+	/**
+	 * The number of bytes of each stream a memory console holds before spilling
+	 * to disk. 8 MiB by default. May be specified using
+	 * {@link #PROPERTY_CONSOLE_MEMORY_CAPACITY}.
+	 * 
+	 * @return
+	 */
+	public static long consoleMemoryCapacity() {
+		return Long.getLong(PROPERTY_CONSOLE_MEMORY_CAPACITY, DEFAULT_CONSOLE_MEMORY_CAPACITY);
+	}
+
+	/**
+	 * The most bytes a console coalesces into a single write to its capture
+	 * file. 64 KiB by default. May be specified using
+	 * {@link #PROPERTY_CONSOLE_WRITE_BATCH}.
+	 * 
+	 * @return
+	 */
+	public static int consoleWriteBatch() {
+		return Integer.getInteger(PROPERTY_CONSOLE_WRITE_BATCH, DEFAULT_CONSOLE_WRITE_BATCH);
+	}
+
+	/**
+	 * The longest a console holds back output that keeps arriving before
+	 * writing it to its capture file, in milliseconds. Output is always written
+	 * as soon as no more is immediately available. 10 milliseconds by default.
+	 * May be specified using {@link #PROPERTY_CONSOLE_WRITE_DELAY}.
+	 * 
+	 * @return
+	 */
+	public static long consoleWriteDelayMillis() {
+		return Long.getLong(PROPERTY_CONSOLE_WRITE_DELAY, DEFAULT_CONSOLE_WRITE_DELAY);
+	}
+
 }
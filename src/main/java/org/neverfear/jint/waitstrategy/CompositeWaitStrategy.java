@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.Deadline;
+import org.neverfear.jint.util.JintExecutors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits on several strategies at once rather than one after another, so the
+ * time taken is that of the slowest (or, for any, the fastest) strategy rather
+ * than the sum of them all. Each strategy waits on the shared IO executor, see
+ * {@link JintExecutors#io()}.
+ * 
+ * The first strategy to fail fails the whole wait. Once the outcome is known
+ * the strategies still waiting are cancelled by interrupting them.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class CompositeWaitStrategy
+	implements WaitStrategy {
+
+	/**
+	 * How the outcomes of the strategies are combined.
+	 */
+	public enum Mode {
+		/**
+		 * Complete once every strategy has completed.
+		 */
+		ALL,
+
+		/**
+		 * Complete once any strategy has completed.
+		 */
+		ANY
+	}
+
+	private final List<WaitStrategy> strategies;
+	private final Mode mode;
+	private final ListeningExecutorService executor;
+
+	CompositeWaitStrategy(final Collection<? extends WaitStrategy> strategies,
+			final Mode mode,
+			final ExecutorService executor) {
+		super();
+		this.strategies = ImmutableList.copyOf(strategies);
+		checkArgument(!this.strategies.isEmpty(), "strategies cannot be empty");
+		this.mode = checkNotNull(mode, "mode cannot be null");
+		this.executor = MoreExecutors.listeningDecorator(executor);
+	}
+
+	public CompositeWaitStrategy(final Collection<? extends WaitStrategy> strategies, final Mode mode) {
+		this(strategies,
+				mode,
+				JintExecutors.io());
+	}
+
+	@Override
+	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+		await(application,
+			null);
+	}
+
+	/**
+	 * Each strategy is given the whole timeout, as they all wait at once.
+	 */
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final SettableFuture<Void> outcome = SettableFuture.create();
+		final AtomicInteger remaining = new AtomicInteger(this.strategies.size());
+		final List<ListenableFuture<Void>> waits = new ArrayList<>(this.strategies.size());
+
+		try {
+			for (final WaitStrategy strategy : this.strategies) {
+				final ListenableFuture<Void> wait = this.executor.submit(new Wait(strategy,
+						application,
+						deadline));
+				waits.add(wait);
+				Futures.addCallback(wait,
+					new FutureCallback<Void>() {
+
+						@Override
+						public void onSuccess(final Void result) {
+							if (CompositeWaitStrategy.this.mode == Mode.ANY || remaining.decrementAndGet() == 0) {
+								outcome.set(null);
+							}
+						}
+
+						@Override
+						public void onFailure(final Throwable t) {
+							outcome.setException(t);
+						}
+					});
+			}
+
+			if (deadline == null) {
+				outcome.get();
+			} else {
+				outcome.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ApplicationException) {
+				throw (ApplicationException) cause;
+			}
+			throw new ApplicationException("Failed to start successfully",
+					cause);
+		} catch (final TimeoutException e) {
+			final List<WaitStrategy> pending = new ArrayList<>();
+			for (int i = 0; i < waits.size(); i++) {
+				if (!waits.get(i)
+						.isDone()) {
+					pending.add(this.strategies.get(i));
+				}
+			}
+			throw new ApplicationTimeoutException(application + " still waiting for " + pending,
+					deadline.timeoutNanos(),
+					TimeUnit.NANOSECONDS);
+		} finally {
+			for (final ListenableFuture<Void> wait : waits) {
+				wait.cancel(true);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [mode=" + this.mode + ", strategies=" + this.strategies + "]";
+	}
+
+	private static final class Wait
+		implements Callable<Void> {
+
+		private final WaitStrategy strategy;
+		private final Application application;
+		private final Deadline deadline;
+
+		Wait(final WaitStrategy strategy, final Application application, final Deadline deadline) {
+			this.strategy = strategy;
+			this.application = application;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			if (this.deadline == null) {
+				this.strategy.waitFor(this.application);
+			} else {
+				this.strategy.waitFor(this.application,
+					this.deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+			return null;
+		}
+	}
+}
@@ -21,16 +21,27 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
 import org.neverfear.jint.api.Console;
 import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.Deadline;
 
 /**
+ * <p>
  * This implementation consumes stdout until the pattern is matched.
+ * </p>
+ * 
+ * <p>
+ * When the pattern is a plain ASCII literal, such as "Server started", stdout
+ * is scanned as raw bytes rather than decoded into a string per line. This
+ * avoids creating garbage for applications that log a great deal on startup.
+ * </p>
  * 
  * @author doug@neverfear.org
  * 
@@ -38,45 +49,146 @@ import org.neverfear.jint.api.WaitStrategy;
 public class ConsoleWaitStrategy
 	implements WaitStrategy {
 
+	private static final int EOF = -1;
+	private static final int BUFFER_SIZE = 0x2000;
+
 	private final Pattern pattern;
 
+	/**
+	 * The pattern as bytes if it may be scanned for directly, otherwise null.
+	 */
+	private final byte[] literal;
+
 	public ConsoleWaitStrategy(final String regex) {
 		this(Pattern.compile(regex));
 	}
 
 	public ConsoleWaitStrategy(final Pattern pattern) {
+		this(pattern,
+				true);
+	}
+
+	/**
+	 * 
+	 * @param pattern the pattern to match
+	 * @param scanBytes false to always decode stdout into lines, even when the
+	 *        pattern is a literal.
+	 */
+	ConsoleWaitStrategy(final Pattern pattern, final boolean scanBytes) {
 		super();
 		this.pattern = pattern;
+		this.literal = scanBytes ? LiteralScanner.literalBytes(pattern) : null;
 	}
 
+	/**
+	 * Reading stdout blocks, so should the application exit the waiting thread
+	 * is interrupted, see {@link Application#termination()}.
+	 */
 	@Override
 	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
-		String line = null;
-
 		final Console console = application.console();
+		final Termination.Alarm alarm = Termination.interruptOnExit(application);
 		try (InputStream standardOutput = console.output()) {
-			final BufferedReader reader = new BufferedReader(new InputStreamReader(standardOutput));
-			while ((line = reader.readLine()) != null) {
-
-				if (!application.isRunning()) {
-					final int exitCode = application.exitCode();
-					throw new ApplicationException("Application has exited with code " + exitCode);
-				}
-
-				final Matcher matcher = this.pattern.matcher(line);
-				if (matcher.find()) {
-					return;
-				}
-
-				if (interrupted()) {
-					throw new InterruptedException();
-				}
+			final boolean found;
+			if (this.literal == null) {
+				found = findLine(standardOutput, application);
+			} else {
+				found = findLiteral(standardOutput, application);
+			}
+			if (found) {
+				return;
 			}
 		} catch (final IOException e) {
+			final Integer exitCode = alarm.cancel();
+			if (exitCode != null) {
+				throw Termination.exited(exitCode);
+			}
 			throw new ApplicationException("Failed to start successfully",
 					e);
+		} catch (final InterruptedException e) {
+			final Integer exitCode = alarm.cancel();
+			if (exitCode != null) {
+				throw Termination.exited(exitCode);
+			}
+			throw e;
+		} finally {
+			alarm.cancel();
 		}
 
 		throw new ApplicationException("Failed to start successfully");
 	}
+
+	/**
+	 * Reading stdout blocks, so the deadline is enforced by interrupting the
+	 * waiting thread from the shared scheduler, see
+	 * {@link Deadline#interruptAtExpiry()}.
+	 */
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		final Deadline deadline = Deadline.after(timeout,
+			unit);
+		final Deadline.Alarm alarm = deadline.interruptAtExpiry();
+		try {
+			waitFor(application);
+		} catch (InterruptedException | ApplicationException e) {
+			if (alarm.cancel()) {
+				final ApplicationTimeoutException timedOut = new ApplicationTimeoutException(application
+						+ " did not output " + this.pattern,
+						timeout,
+						unit);
+				timedOut.addSuppressed(e);
+				throw timedOut;
+			}
+			throw e;
+		} finally {
+			alarm.cancel();
+		}
+	}
+
+	private boolean findLine(final InputStream standardOutput, final Application application)
+			throws IOException, InterruptedException, ApplicationException {
+		String line = null;
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(standardOutput));
+		while ((line = reader.readLine()) != null) {
+
+			checkRunning(application);
+
+			final Matcher matcher = this.pattern.matcher(line);
+			if (matcher.find()) {
+				return true;
+			}
+
+			if (interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return false;
+	}
+
+	private boolean findLiteral(final InputStream standardOutput, final Application application)
+			throws IOException, InterruptedException, ApplicationException {
+		final LiteralScanner scanner = new LiteralScanner(this.literal);
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		int readCount;
+		while ((readCount = standardOutput.read(buffer)) != EOF) {
+
+			checkRunning(application);
+
+			if (scanner.find(buffer, 0, readCount)) {
+				return true;
+			}
+
+			if (interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return false;
+	}
+
+	private static void checkRunning(final Application application) throws ApplicationException {
+		if (!application.isRunning()) {
+			throw Termination.exited(application.exitCode());
+		}
+	}
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.Deadline;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+/**
+ * This implementation waits until a marker file, such as a pid or ready file,
+ * exists and satisfies a predicate. Rather than polling for the file its
+ * directory is watched with a {@link WatchService}, so the marker is only
+ * examined when something in that directory is created or modified.
+ * 
+ * The directory must exist before waiting begins. Waiting fails as soon as
+ * the application exits, see {@link Application#termination()}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class FileMarkerWaitStrategy
+	implements WaitStrategy {
+
+	private final Path marker;
+	private final Predicate<? super Path> predicate;
+
+	/**
+	 * Waits until the marker exists, whatever it contains.
+	 */
+	public FileMarkerWaitStrategy(final Path marker) {
+		this(marker,
+				Predicates.alwaysTrue());
+	}
+
+	/**
+	 * @param marker the file to wait for
+	 * @param predicate applied to the marker once it exists, and again each
+	 *        time it is modified until satisfied, such as to check it has been
+	 *        written in full
+	 */
+	public FileMarkerWaitStrategy(final Path marker, final Predicate<? super Path> predicate) {
+		super();
+		this.marker = checkNotNull(marker, "marker cannot be null").toAbsolutePath();
+		this.predicate = checkNotNull(predicate, "predicate cannot be null");
+	}
+
+	/**
+	 * Waiting on the watch service blocks, so should the application exit the
+	 * waiting thread is interrupted.
+	 */
+	@Override
+	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+		await(application,
+			null);
+	}
+
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final Path directory = this.marker.getParent();
+		final Termination.Alarm alarm = Termination.interruptOnExit(application);
+		try (WatchService watcher = directory.getFileSystem()
+				.newWatchService()) {
+			directory.register(watcher,
+				ENTRY_CREATE,
+				ENTRY_MODIFY);
+
+			// The marker may have been written before the directory was watched
+			if (isReady()) {
+				return;
+			}
+
+			while (true) {
+				final WatchKey key;
+				if (deadline == null) {
+					key = watcher.take();
+				} else {
+					key = watcher.poll(deadline.remainingNanos(),
+						TimeUnit.NANOSECONDS);
+					if (key == null) {
+						throw new ApplicationTimeoutException(application + " did not write " + this.marker,
+								deadline.timeoutNanos(),
+								TimeUnit.NANOSECONDS);
+					}
+				}
+
+				if (concernsMarker(key) && isReady()) {
+					return;
+				}
+
+				if (!key.reset()) {
+					throw new ApplicationException(directory + " can no longer be watched");
+				}
+			}
+		} catch (final IOException e) {
+			final Integer exitCode = alarm.cancel();
+			if (exitCode != null) {
+				throw Termination.exited(exitCode);
+			}
+			throw new ApplicationException("Failed to watch " + directory,
+					e);
+		} catch (final InterruptedException e) {
+			final Integer exitCode = alarm.cancel();
+			if (exitCode != null) {
+				throw Termination.exited(exitCode);
+			}
+			throw e;
+		} finally {
+			alarm.cancel();
+		}
+	}
+
+	/**
+	 * Consumes the events of the key.
+	 * 
+	 * @return true if any event may concern the marker
+	 */
+	private boolean concernsMarker(final WatchKey key) {
+		final Path fileName = this.marker.getFileName();
+		boolean concerned = false;
+		for (final WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW || fileName.equals(event.context())) {
+				concerned = true;
+			}
+		}
+		return concerned;
+	}
+
+	private boolean isReady() {
+		return Files.exists(this.marker) && this.predicate.apply(this.marker);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [marker=" + this.marker + "]";
+	}
+}
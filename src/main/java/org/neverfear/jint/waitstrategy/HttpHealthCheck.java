@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.neverfear.jint.api.Application;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.io.ByteStreams;
+
+/**
+ * This implementation waits until an HTTP endpoint, such as /health, responds
+ * with the expected status and a body satisfying a predicate.
+ * 
+ * Every response is read in full so that the JDK keeps the connection alive
+ * and reuses it for the next attempt, rather than paying for a new connection
+ * per attempt. The connection is closed when {@link UntilHealthyWaitStrategy}
+ * finishes waiting.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class HttpHealthCheck
+	implements HealthCheck, Closeable {
+
+	private static final int DEFAULT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(5);
+
+	private final URL url;
+	private final int expectedStatus;
+	private final Predicate<? super String> bodyPredicate;
+
+	/**
+	 * Guarded by this.
+	 */
+	private HttpURLConnection lastConnection;
+
+	/**
+	 * Healthy when the URL responds 200 OK, whatever the body.
+	 */
+	public HttpHealthCheck(final URL url) {
+		this(url,
+				HttpURLConnection.HTTP_OK,
+				Predicates.alwaysTrue());
+	}
+
+	/**
+	 * @param url the URL to GET
+	 * @param expectedStatus the status code of a healthy response
+	 * @param bodyPredicate applied to the body, decoded as UTF-8, of a
+	 *        response with the expected status
+	 */
+	public HttpHealthCheck(final URL url, final int expectedStatus, final Predicate<? super String> bodyPredicate) {
+		super();
+		this.url = checkNotNull(url, "url cannot be null");
+		checkArgument("http".equals(url.getProtocol()) || "https".equals(url.getProtocol()),
+			"url must be http or https");
+		this.expectedStatus = expectedStatus;
+		this.bodyPredicate = checkNotNull(bodyPredicate, "body predicate cannot be null");
+	}
+
+	@Override
+	public boolean isHealthy(final Application application) {
+		try {
+			final HttpURLConnection connection = open();
+			final int status = connection.getResponseCode();
+			final byte[] body = readFully(connection,
+				status);
+			return status == this.expectedStatus && this.bodyPredicate.apply(new String(body,
+					Charsets.UTF_8));
+		} catch (final IOException e) {
+			// Not listening yet, or the connection was dropped
+			return false;
+		}
+	}
+
+	private synchronized HttpURLConnection open() throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+		connection.setConnectTimeout(DEFAULT_TIMEOUT_MILLIS);
+		connection.setReadTimeout(DEFAULT_TIMEOUT_MILLIS);
+		connection.setUseCaches(false);
+		connection.setInstanceFollowRedirects(false);
+		this.lastConnection = connection;
+		return connection;
+	}
+
+	/**
+	 * The connection is only kept alive once its body has been read and closed,
+	 * which for an error status is on the error stream.
+	 */
+	private static byte[] readFully(final HttpURLConnection connection, final int status) throws IOException {
+		final InputStream input = status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+				: connection.getErrorStream();
+		if (input == null) {
+			return new byte[0];
+		}
+		try {
+			return ByteStreams.toByteArray(input);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Closes the kept alive connection, if it is idle. A later attempt will
+	 * connect again.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.lastConnection != null) {
+			this.lastConnection.disconnect();
+			this.lastConnection = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [url=" + this.url + ", expectedStatus=" + this.expectedStatus + "]";
+	}
+}
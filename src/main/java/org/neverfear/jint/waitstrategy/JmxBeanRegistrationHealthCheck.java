@@ -15,6 +15,7 @@
  */
 package org.neverfear.jint.waitstrategy;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 import javax.management.InstanceNotFoundException;
@@ -29,17 +30,26 @@ import javax.management.remote.JMXServiceURL;
 import org.neverfear.jint.api.Application;
 
 /**
- * This implementation waits until a named JMX bean is registered.
+ * This implementation waits until a named JMX bean is registered. The
+ * connection is made on the first attempt and reused by later attempts, so
+ * each attempt after the first is a single round trip. It is only remade if it
+ * fails, and is closed when {@link UntilHealthyWaitStrategy} finishes waiting.
  * 
  * @author doug@neverfear.org
  * 
  */
 public final class JmxBeanRegistrationHealthCheck
-	implements HealthCheck {
+	implements HealthCheck, Closeable {
 
 	private final ObjectName beanName;
 	private final String serviceURL;
 
+	/**
+	 * Guarded by this.
+	 */
+	private JMXConnector connector;
+	private MBeanServerConnection connection;
+
 	public JmxBeanRegistrationHealthCheck(final ObjectName beanName, final int port) {
 		this(beanName,
 				"localhost",
@@ -47,20 +57,66 @@ public final class JmxBeanRegistrationHealthCheck
 	}
 
 	public JmxBeanRegistrationHealthCheck(final ObjectName beanName, final String hostname, final int port) {
+		this(beanName,
+				"service:jmx:rmi:///jndi/rmi://" + hostname + ":" + port + "/jmxrmi");
+	}
+
+	JmxBeanRegistrationHealthCheck(final ObjectName beanName, final String serviceURL) {
 		super();
 		this.beanName = beanName;
-		this.serviceURL = "service:jmx:rmi:///jndi/rmi://" + hostname + ":" + port + "/jmxrmi";
+		this.serviceURL = serviceURL;
 	}
 
 	@Override
 	public boolean isHealthy(final Application application) {
 		try {
-			final JMXConnector jmxc = JMXConnectorFactory.connect(new JMXServiceURL(this.serviceURL));
-			final MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
-			mbsc.getMBeanInfo(this.beanName);
+			connection().getMBeanInfo(this.beanName);
 			return true;
-		} catch (final IOException | InstanceNotFoundException | IntrospectionException | ReflectionException e) {
+		} catch (final InstanceNotFoundException | IntrospectionException | ReflectionException e) {
+			return false;
+		} catch (final IOException e) {
+			// The application may not be listening yet, or may have restarted
+			close();
 			return false;
 		}
 	}
+
+	private synchronized MBeanServerConnection connection() throws IOException {
+		if (this.connection == null) {
+			final JMXConnector newConnector = JMXConnectorFactory.connect(new JMXServiceURL(this.serviceURL));
+			try {
+				this.connection = newConnector.getMBeanServerConnection();
+			} catch (final IOException e) {
+				closeQuietly(newConnector);
+				throw e;
+			}
+			this.connector = newConnector;
+		}
+		return this.connection;
+	}
+
+	/**
+	 * Closes the connection, if any. A later attempt will connect again.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.connector != null) {
+			closeQuietly(this.connector);
+			this.connector = null;
+			this.connection = null;
+		}
+	}
+
+	private static void closeQuietly(final JMXConnector connector) {
+		try {
+			connector.close();
+		} catch (final IOException e) {
+			// Already broken, there is nothing more to release
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [beanName=" + this.beanName + ", serviceURL=" + this.serviceURL + "]";
+	}
 }
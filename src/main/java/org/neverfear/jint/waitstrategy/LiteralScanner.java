@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds a literal in a stream of bytes without decoding them or splitting them
+ * into lines. The literal never contains a line terminator, so any occurrence
+ * is necessarily within a single line. Matching uses Knuth-Morris-Pratt, so
+ * the state carries across buffers and nothing is allocated per byte or line.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class LiteralScanner {
+
+	/**
+	 * Charsets in which the bytes of an ASCII character never appear as part
+	 * of another character.
+	 */
+	private static final List<Charset> ASCII_COMPATIBLE = Arrays.asList(StandardCharsets.US_ASCII,
+		StandardCharsets.UTF_8,
+		StandardCharsets.ISO_8859_1);
+
+	private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+	private static final String QUOTE_START = "\\Q";
+	private static final String QUOTE_END = "\\E";
+
+	private final byte[] literal;
+
+	/**
+	 * The length of the longest proper prefix of the literal that is also a
+	 * suffix of the first i + 1 bytes.
+	 */
+	private final int[] failure;
+
+	/**
+	 * The number of bytes of the literal matched so far.
+	 */
+	private int matched = 0;
+
+	LiteralScanner(final byte[] literal) {
+		if (literal.length == 0) {
+			throw new IllegalArgumentException("literal cannot be empty");
+		}
+		this.literal = literal;
+		this.failure = new int[literal.length];
+		int prefix = 0;
+		for (int index = 1; index < literal.length; index++) {
+			while (prefix > 0 && literal[index] != literal[prefix]) {
+				prefix = this.failure[prefix - 1];
+			}
+			if (literal[index] == literal[prefix]) {
+				prefix++;
+			}
+			this.failure[index] = prefix;
+		}
+	}
+
+	/**
+	 * Scans the next bytes of the stream.
+	 * 
+	 * @return true if the literal ends within these bytes
+	 */
+	boolean find(final byte[] buffer, final int offset, final int length) {
+		int matched = this.matched;
+		for (int index = offset; index < offset + length; index++) {
+			final byte next = buffer[index];
+			while (matched > 0 && next != this.literal[matched]) {
+				matched = this.failure[matched - 1];
+			}
+			if (next == this.literal[matched]) {
+				matched++;
+				if (matched == this.literal.length) {
+					this.matched = this.failure[matched - 1];
+					return true;
+				}
+			}
+		}
+		this.matched = matched;
+		return false;
+	}
+
+	/**
+	 * @param pattern a pattern
+	 * @return the bytes stdout would contain where the pattern matches, if it
+	 *         is a non-empty literal of printable ASCII and the platform charset
+	 *         is compatible with ASCII, otherwise null.
+	 */
+	static byte[] literalBytes(final Pattern pattern) {
+		if (!ASCII_COMPATIBLE.contains(Charset.defaultCharset())) {
+			return null;
+		}
+
+		final String literal = literal(pattern);
+		if (literal == null || literal.isEmpty()) {
+			return null;
+		}
+		for (int index = 0; index < literal.length(); index++) {
+			final char character = literal.charAt(index);
+			if (character < ' ' || character > '~') {
+				return null;
+			}
+		}
+		return literal.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static String literal(final Pattern pattern) {
+		final String regex = pattern.pattern();
+		if (pattern.flags() == Pattern.LITERAL) {
+			return regex;
+		}
+		if (pattern.flags() != 0) {
+			return null;
+		}
+
+		// As produced by Pattern.quote(String)
+		if (regex.startsWith(QUOTE_START) && regex.endsWith(QUOTE_END)
+				&& regex.indexOf(QUOTE_END) == regex.length() - QUOTE_END.length()) {
+			return regex.substring(QUOTE_START.length(), regex.length() - QUOTE_END.length());
+		}
+
+		for (int index = 0; index < regex.length(); index++) {
+			if (METACHARACTERS.indexOf(regex.charAt(index)) >= 0) {
+				return null;
+			}
+		}
+		return regex;
+	}
+}
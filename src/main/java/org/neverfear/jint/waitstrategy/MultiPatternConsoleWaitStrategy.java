@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.console.ConsoleWatcher;
+import org.neverfear.jint.util.Deadline;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * This implementation consumes stdout until every literal and every pattern has
+ * been found, using a single {@link ConsoleWatcher} however many there are.
+ * Waiting fails as soon as the application exits, see
+ * {@link Application#termination()}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class MultiPatternConsoleWaitStrategy
+	implements WaitStrategy {
+
+	private final List<String> literals;
+	private final List<Pattern> patterns;
+
+	/**
+	 * 
+	 * @param literals text that must each appear within a line
+	 * @param patterns regular expressions that must each be found within a
+	 *        line
+	 */
+	public MultiPatternConsoleWaitStrategy(final Collection<String> literals, final Collection<Pattern> patterns) {
+		super();
+		this.literals = ImmutableList.copyOf(literals);
+		this.patterns = ImmutableList.copyOf(patterns);
+	}
+
+	@Override
+	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+		await(application,
+			null);
+	}
+
+	/**
+	 * The deadline is enforced by a timed wait on the matches, so no thread is
+	 * needed to enforce it.
+	 */
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final Map<Object, ListenableFuture<String>> matches = new LinkedHashMap<>();
+		try (ConsoleWatcher watcher = new ConsoleWatcher(application.console())) {
+			for (final String literal : this.literals) {
+				matches.put(literal,
+					watcher.whenContains(literal));
+			}
+			for (final Pattern pattern : this.patterns) {
+				matches.put(pattern,
+					watcher.whenMatches(pattern));
+			}
+			watcher.start();
+
+			final ListenableFuture<List<String>> all = Termination.orExit(application,
+				Futures.allAsList(matches.values()));
+			if (deadline == null) {
+				all.get();
+			} else {
+				all.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof ApplicationException) {
+				throw (ApplicationException) e.getCause();
+			}
+			if (!application.isRunning()) {
+				final int exitCode = application.exitCode();
+				throw new ApplicationException("Application has exited with code " + exitCode,
+						e.getCause());
+			}
+			throw new ApplicationException("Failed to start successfully",
+					e.getCause());
+		} catch (final TimeoutException e) {
+			final List<Object> unmatched = new ArrayList<>();
+			for (final Map.Entry<Object, ListenableFuture<String>> match : matches.entrySet()) {
+				if (!match.getValue()
+						.isDone()) {
+					unmatched.add(match.getKey());
+				}
+			}
+			throw new ApplicationTimeoutException(application + " did not output " + unmatched,
+					deadline.timeoutNanos(),
+					TimeUnit.NANOSECONDS);
+		} catch (final IOException e) {
+			throw new ApplicationException("Failed to start successfully",
+					e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [literals=" + this.literals + ", patterns=" + this.patterns + "]";
+	}
+}
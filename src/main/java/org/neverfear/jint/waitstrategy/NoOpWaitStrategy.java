@@ -15,6 +15,8 @@
  */
 package org.neverfear.jint.waitstrategy;
 
+import java.util.concurrent.TimeUnit;
+
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.WaitStrategy;
 
@@ -35,4 +37,11 @@ public final class NoOpWaitStrategy
 		 */
 	}
 
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit) {
+		/*
+		 * This method is left intentionally blank
+		 */
+	}
+
 }
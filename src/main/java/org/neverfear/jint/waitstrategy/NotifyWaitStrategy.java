@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.notify.NotifyChannel;
+import org.neverfear.jint.util.Deadline;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * This implementation waits until the application reports it is ready on a
+ * {@link NotifyChannel}, so there is nothing to poll. The application must be
+ * given the address of the channel, see {@link NotifyChannel#address()}.
+ * Waiting fails as soon as the application exits, see
+ * {@link Application#termination()}.
+ * 
+ * Once restarted, an application must report ready again: each run, told apart
+ * by its termination, waits for a connection later than the one the previous
+ * run reported ready over.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class NotifyWaitStrategy
+	implements WaitStrategy {
+
+	private final NotifyChannel channel;
+
+	/**
+	 * Guarded by this.
+	 */
+	private ListenableFuture<Integer> run = null;
+	private long readyAfter = 0;
+	private long lastReady = 0;
+
+	public NotifyWaitStrategy(final NotifyChannel channel) {
+		super();
+		this.channel = checkNotNull(channel, "channel cannot be null");
+	}
+
+	@Override
+	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+		await(application,
+			null);
+	}
+
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final long after;
+		synchronized (this) {
+			final ListenableFuture<Integer> run = application.termination();
+			if (run != this.run) {
+				this.run = run;
+				this.readyAfter = this.lastReady;
+			}
+			after = this.readyAfter;
+		}
+
+		final ListenableFuture<Long> connection = this.channel.readyAfter(after);
+		final ListenableFuture<Long> ready = Termination.orExit(application,
+			connection);
+		try {
+			final long readyOver;
+			if (deadline == null) {
+				readyOver = ready.get();
+			} else {
+				readyOver = ready.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+			synchronized (this) {
+				this.lastReady = Math.max(this.lastReady,
+					readyOver);
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ApplicationException) {
+				throw (ApplicationException) cause;
+			}
+			throw new ApplicationException("Failed to start successfully",
+					cause);
+		} catch (final TimeoutException e) {
+			throw new ApplicationTimeoutException(application + " did not report ready, last status was "
+					+ this.channel.status(),
+					deadline.timeoutNanos(),
+					TimeUnit.NANOSECONDS);
+		} finally {
+			connection.cancel(false);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [channel=" + this.channel + "]";
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * How often to poll, for example a {@link HealthCheck}. The first attempt is
+ * made after an initial delay. Each later attempt waits an interval that starts
+ * at the initial interval and is multiplied by a factor after every attempt, up
+ * to a maximum. A factor of one gives a fixed interval.
+ * </p>
+ * 
+ * <p>
+ * Jitter randomly shortens each interval by up to the given fraction, so that
+ * applications started together do not poll in lock step.
+ * </p>
+ * 
+ * <p>
+ * Instances are immutable; the with methods return a modified copy.
+ * </p>
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public final class PollingPolicy {
+
+	private static final long DEFAULT_INITIAL_INTERVAL_MILLIS = 10;
+	private static final long DEFAULT_MAX_INTERVAL_MILLIS = 500;
+	private static final double DEFAULT_FACTOR = 2;
+	private static final double DEFAULT_JITTER = 0.2;
+
+	private final long initialDelayNanos;
+	private final long initialIntervalNanos;
+	private final long maxIntervalNanos;
+	private final double factor;
+	private final double jitter;
+
+	private PollingPolicy(final long initialDelayNanos,
+			final long initialIntervalNanos,
+			final long maxIntervalNanos,
+			final double factor,
+			final double jitter) {
+		checkArgument(initialDelayNanos >= 0, "initial delay cannot be negative");
+		checkArgument(initialIntervalNanos >= 0, "interval cannot be negative");
+		checkArgument(maxIntervalNanos >= initialIntervalNanos, "max interval cannot be less than the interval");
+		checkArgument(factor >= 1, "factor cannot be less than one");
+		checkArgument(jitter >= 0 && jitter <= 1, "jitter must be between zero and one");
+		this.initialDelayNanos = initialDelayNanos;
+		this.initialIntervalNanos = initialIntervalNanos;
+		this.maxIntervalNanos = maxIntervalNanos;
+		this.factor = factor;
+		this.jitter = jitter;
+	}
+
+	/**
+	 * Polls immediately, then backs off exponentially from 10 milliseconds to
+	 * half a second with 20% jitter.
+	 * 
+	 * @return the default policy
+	 */
+	public static PollingPolicy defaultPolicy() {
+		return new PollingPolicy(0,
+				TimeUnit.MILLISECONDS.toNanos(DEFAULT_INITIAL_INTERVAL_MILLIS),
+				TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_INTERVAL_MILLIS),
+				DEFAULT_FACTOR,
+				DEFAULT_JITTER);
+	}
+
+	/**
+	 * @param interval the time between attempts
+	 * @param unit the unit of interval
+	 * @return a policy that polls immediately and then every interval, without
+	 *         jitter
+	 */
+	public static PollingPolicy fixed(final long interval, final TimeUnit unit) {
+		final long intervalNanos = checkNotNull(unit, "unit cannot be null").toNanos(interval);
+		return new PollingPolicy(0,
+				intervalNanos,
+				intervalNanos,
+				1,
+				0);
+	}
+
+	/**
+	 * @param initialInterval the time between the first and second attempts
+	 * @param maxInterval the longest time between attempts
+	 * @param unit the unit of both intervals
+	 * @return a policy that polls immediately and then doubles the interval
+	 *         after each attempt, without jitter
+	 */
+	public static PollingPolicy exponential(final long initialInterval, final long maxInterval, final TimeUnit unit) {
+		checkNotNull(unit, "unit cannot be null");
+		return new PollingPolicy(0,
+				unit.toNanos(initialInterval),
+				unit.toNanos(maxInterval),
+				DEFAULT_FACTOR,
+				0);
+	}
+
+	public PollingPolicy withInitialDelay(final long initialDelay, final TimeUnit unit) {
+		return new PollingPolicy(checkNotNull(unit, "unit cannot be null").toNanos(initialDelay),
+				this.initialIntervalNanos,
+				this.maxIntervalNanos,
+				this.factor,
+				this.jitter);
+	}
+
+	public PollingPolicy withFactor(final double factor) {
+		return new PollingPolicy(this.initialDelayNanos,
+				this.initialIntervalNanos,
+				this.maxIntervalNanos,
+				factor,
+				this.jitter);
+	}
+
+	/**
+	 * @param jitter the greatest fraction of each interval to randomly remove,
+	 *        between zero and one.
+	 */
+	public PollingPolicy withJitter(final double jitter) {
+		return new PollingPolicy(this.initialDelayNanos,
+				this.initialIntervalNanos,
+				this.maxIntervalNanos,
+				this.factor,
+				jitter);
+	}
+
+	public long initialDelayNanos() {
+		return this.initialDelayNanos;
+	}
+
+	/**
+	 * @param attempt the number of attempts made so far, at least one
+	 * @return how long to wait before the next attempt
+	 */
+	public long intervalNanos(final int attempt) {
+		checkArgument(attempt >= 1, "attempt must be at least one");
+		double interval = this.initialIntervalNanos;
+		for (int count = 1; count < attempt && interval < this.maxIntervalNanos; count++) {
+			interval *= this.factor;
+		}
+		final long capped = (long) Math.min(interval, this.maxIntervalNanos);
+		if (this.jitter == 0 || capped == 0) {
+			return capped;
+		}
+		final double removed = ThreadLocalRandom.current()
+				.nextDouble() * this.jitter * capped;
+		return capped - (long) removed;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [initialDelayNanos=" + this.initialDelayNanos + ", initialIntervalNanos="
+				+ this.initialIntervalNanos + ", maxIntervalNanos=" + this.maxIntervalNanos + ", factor=" + this.factor
+				+ ", jitter=" + this.jitter + "]";
+	}
+}
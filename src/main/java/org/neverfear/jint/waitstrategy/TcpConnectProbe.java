@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Attempts TCP connections without blocking, using a single selector thread
+ * for every connection in flight however many endpoints are being probed.
+ * Connections are closed as soon as the outcome is known.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class TcpConnectProbe
+	implements Runnable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TcpConnectProbe.class);
+
+	private final Selector selector;
+	private final Queue<Connect> pending = new ConcurrentLinkedQueue<>();
+
+	TcpConnectProbe() throws IOException {
+		this.selector = Selector.open();
+	}
+
+	/**
+	 * The probe shared by every wait within this JVM. Its thread is a daemon
+	 * and is idle unless a connection is in flight.
+	 */
+	static TcpConnectProbe shared() {
+		return Shared.INSTANCE;
+	}
+
+	/**
+	 * Begins connecting to the address.
+	 * 
+	 * @return a future that is true if a connection was accepted or false if it
+	 *         was refused. Cancelling it abandons the connection attempt.
+	 */
+	ListenableFuture<Boolean> connect(final InetSocketAddress address) {
+		final SocketChannel channel;
+		try {
+			channel = SocketChannel.open();
+		} catch (final IOException e) {
+			return Futures.immediateFailedFuture(e);
+		}
+
+		try {
+			channel.configureBlocking(false);
+			if (channel.connect(address)) {
+				closeQuietly(channel);
+				return Futures.immediateFuture(true);
+			}
+		} catch (final ConnectException e) {
+			closeQuietly(channel);
+			return Futures.immediateFuture(false);
+		} catch (final IOException | RuntimeException e) {
+			closeQuietly(channel);
+			return Futures.immediateFailedFuture(e);
+		}
+
+		final SettableFuture<Boolean> connected = SettableFuture.create();
+		connected.addListener(new Runnable() {
+
+			@Override
+			public void run() {
+				// Deregisters the channel if abandoned
+				closeQuietly(channel);
+			}
+		},
+			MoreExecutors.sameThreadExecutor());
+
+		this.pending.add(new Connect(channel,
+				connected));
+		this.selector.wakeup();
+		return connected;
+	}
+
+	@Override
+	public void run() {
+		while (!Thread.currentThread()
+				.isInterrupted()) {
+			try {
+				this.selector.select();
+				register();
+
+				final Iterator<SelectionKey> selected = this.selector.selectedKeys()
+						.iterator();
+				while (selected.hasNext()) {
+					final SelectionKey key = selected.next();
+					selected.remove();
+					if (key.isValid()) {
+						finishConnect(key);
+					}
+				}
+			} catch (final IOException | RuntimeException e) {
+				LOGGER.error("TCP probe failed to select", e);
+			}
+		}
+	}
+
+	private void register() {
+		Connect connect;
+		while ((connect = this.pending.poll()) != null) {
+			try {
+				connect.channel.register(this.selector,
+					SelectionKey.OP_CONNECT,
+					connect.connected);
+			} catch (final ClosedChannelException e) {
+				// Abandoned before it was registered
+				connect.connected.cancel(false);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void finishConnect(final SelectionKey key) {
+		final SocketChannel channel = (SocketChannel) key.channel();
+		final SettableFuture<Boolean> connected = (SettableFuture<Boolean>) key.attachment();
+		try {
+			if (!channel.finishConnect()) {
+				return;
+			}
+			connected.set(true);
+		} catch (final ConnectException e) {
+			connected.set(false);
+		} catch (final IOException e) {
+			connected.setException(e);
+		}
+		// Completing the future closes the channel
+	}
+
+	private static void closeQuietly(final SocketChannel channel) {
+		try {
+			channel.close();
+		} catch (final IOException e) {
+			// Nothing more to release
+		}
+	}
+
+	private static final class Connect {
+
+		private final SocketChannel channel;
+		private final SettableFuture<Boolean> connected;
+
+		Connect(final SocketChannel channel, final SettableFuture<Boolean> connected) {
+			this.channel = channel;
+			this.connected = connected;
+		}
+	}
+
+	/**
+	 * Lazily created on first use.
+	 */
+	private static final class Shared {
+
+		private static final TcpConnectProbe INSTANCE = start();
+
+		private static TcpConnectProbe start() {
+			final TcpConnectProbe probe;
+			try {
+				probe = new TcpConnectProbe();
+			} catch (final IOException e) {
+				throw new IllegalStateException("Unable to open a selector", e);
+			}
+			new ThreadFactoryBuilder().setDaemon(true)
+					.setNameFormat("jint-tcp-probe-%d")
+					.build()
+					.newThread(probe)
+					.start();
+			return probe;
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.Deadline;
+import org.neverfear.jint.util.JintExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits until every endpoint accepts a TCP connection. Each endpoint is
+ * probed independently according to a {@link PollingPolicy} and is not probed
+ * again once it has accepted a connection. Connections are attempted without
+ * blocking by a single selector thread shared by every wait, and attempts are
+ * timed by the shared scheduler, see {@link JintExecutors#scheduler()}, so no
+ * thread is blocked per endpoint. Waiting fails as soon as the application
+ * exits, see {@link Application#termination()}.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class TcpPortsWaitStrategy
+	implements WaitStrategy {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TcpPortsWaitStrategy.class);
+
+	private final List<InetSocketAddress> endpoints;
+	private final PollingPolicy pollingPolicy;
+	private final TcpConnectProbe probe;
+	private final ScheduledExecutorService scheduler;
+
+	TcpPortsWaitStrategy(final Collection<InetSocketAddress> endpoints,
+			final PollingPolicy pollingPolicy,
+			final TcpConnectProbe probe,
+			final ScheduledExecutorService scheduler) {
+		super();
+		this.endpoints = ImmutableList.copyOf(endpoints);
+		checkArgument(!this.endpoints.isEmpty(), "endpoints cannot be empty");
+		this.pollingPolicy = checkNotNull(pollingPolicy, "polling policy cannot be null");
+		this.probe = probe;
+		this.scheduler = scheduler;
+	}
+
+	public TcpPortsWaitStrategy(final Collection<InetSocketAddress> endpoints, final PollingPolicy pollingPolicy) {
+		this(endpoints,
+				pollingPolicy,
+				TcpConnectProbe.shared(),
+				JintExecutors.scheduler());
+	}
+
+	/**
+	 * Polls according to {@link PollingPolicy#defaultPolicy()}.
+	 */
+	public TcpPortsWaitStrategy(final Collection<InetSocketAddress> endpoints) {
+		this(endpoints,
+				PollingPolicy.defaultPolicy());
+	}
+
+	@Override
+	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+		await(application,
+			null);
+	}
+
+	/**
+	 * The deadline is enforced by a timed wait on the outcome, so no thread is
+	 * needed to enforce it.
+	 */
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final SettableFuture<Void> ready = SettableFuture.create();
+		Termination.failOnExit(application,
+			ready);
+		final AtomicInteger remaining = new AtomicInteger(this.endpoints.size());
+		final List<Endpoint> endpoints = new ArrayList<>(this.endpoints.size());
+		for (final InetSocketAddress address : this.endpoints) {
+			final Endpoint endpoint = new Endpoint(address,
+					application,
+					ready,
+					remaining);
+			endpoints.add(endpoint);
+			endpoint.schedule(this.pollingPolicy.initialDelayNanos());
+		}
+
+		try {
+			if (deadline == null) {
+				ready.get();
+			} else {
+				ready.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ApplicationException) {
+				throw (ApplicationException) cause;
+			}
+			throw new ApplicationException("Failed to probe TCP ports",
+					cause);
+		} catch (final TimeoutException e) {
+			final List<InetSocketAddress> notListening = new ArrayList<>();
+			for (final Endpoint endpoint : endpoints) {
+				if (!endpoint.isReady()) {
+					notListening.add(endpoint.address);
+				}
+			}
+			throw new ApplicationTimeoutException(application + " is not listening on " + notListening,
+					deadline.timeoutNanos(),
+					TimeUnit.NANOSECONDS);
+		} finally {
+			// Stops any further attempts if interrupted or timed out
+			ready.cancel(false);
+			for (final Endpoint endpoint : endpoints) {
+				endpoint.abandon();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [endpoints=" + this.endpoints + ", pollingPolicy=" + this.pollingPolicy
+				+ "]";
+	}
+
+	/**
+	 * Each attempt is handed from the scheduler to the probe, whose outcome
+	 * schedules the next until this endpoint is ready or the wait is over.
+	 */
+	private final class Endpoint
+		implements Runnable, FutureCallback<Boolean> {
+
+		private final InetSocketAddress address;
+		private final Application application;
+		private final SettableFuture<Void> ready;
+		private final AtomicInteger remaining;
+		private final long started = System.nanoTime();
+
+		private int attempts = 0;
+		private volatile boolean isReady = false;
+		private volatile ListenableFuture<Boolean> connecting;
+
+		Endpoint(final InetSocketAddress address,
+				final Application application,
+				final SettableFuture<Void> ready,
+				final AtomicInteger remaining) {
+			this.address = address;
+			this.application = application;
+			this.ready = ready;
+			this.remaining = remaining;
+		}
+
+		void schedule(final long delayNanos) {
+			TcpPortsWaitStrategy.this.scheduler.schedule(this,
+				delayNanos,
+				TimeUnit.NANOSECONDS);
+		}
+
+		boolean isReady() {
+			return this.isReady;
+		}
+
+		void abandon() {
+			final ListenableFuture<Boolean> inFlight = this.connecting;
+			if (inFlight != null) {
+				inFlight.cancel(false);
+			}
+		}
+
+		@Override
+		public void run() {
+			if (this.ready.isDone()) {
+				return;
+			}
+			this.attempts++;
+			this.connecting = TcpPortsWaitStrategy.this.probe.connect(this.address);
+			Futures.addCallback(this.connecting,
+				this);
+		}
+
+		@Override
+		public void onSuccess(final Boolean accepted) {
+			if (accepted) {
+				this.isReady = true;
+				LOGGER.debug("{} accepted a connection after {} attempts in {} ms",
+					this.address,
+					this.attempts,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.started));
+				if (this.remaining.decrementAndGet() == 0) {
+					this.ready.set(null);
+				}
+				return;
+			}
+
+			try {
+				if (!this.application.isRunning()) {
+					throw Termination.exited(this.application.exitCode());
+				}
+			} catch (final Exception e) {
+				this.ready.setException(e);
+				return;
+			}
+
+			if (!this.ready.isDone()) {
+				schedule(TcpPortsWaitStrategy.this.pollingPolicy.intervalNanos(this.attempts));
+			}
+		}
+
+		@Override
+		public void onFailure(final Throwable t) {
+			if (!this.connecting.isCancelled()) {
+				this.ready.setException(t);
+			}
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.waitstrategy;
+
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationExitedException;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Races waiting against the {@link Application#termination() termination} of
+ * an application, so that waiting fails as soon as the application exits.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+final class Termination {
+
+	private Termination() {
+		throw new AssertionError();
+	}
+
+	static ApplicationExitedException exited(final int exitCode) {
+		return new ApplicationExitedException("Application has exited with code " + exitCode,
+				exitCode);
+	}
+
+	/**
+	 * Fails the outcome once the application exits, unless it is already
+	 * done.
+	 */
+	static void failOnExit(final Application application, final SettableFuture<?> outcome) {
+		Futures.addCallback(application.termination(),
+			new FutureCallback<Integer>() {
+
+				@Override
+				public void onSuccess(final Integer exitCode) {
+					outcome.setException(exited(exitCode));
+				}
+
+				@Override
+				public void onFailure(final Throwable t) {
+					// Exit unknown, so leave the outcome to the wait
+				}
+			},
+			MoreExecutors.sameThreadExecutor());
+	}
+
+	/**
+	 * @return a future with the outcome of the wait, or that fails once the
+	 *         application exits, whichever is first
+	 */
+	static <V> ListenableFuture<V> orExit(final Application application, final ListenableFuture<V> wait) {
+		final SettableFuture<V> outcome = SettableFuture.create();
+		Futures.addCallback(wait,
+			new FutureCallback<V>() {
+
+				@Override
+				public void onSuccess(final V result) {
+					outcome.set(result);
+				}
+
+				@Override
+				public void onFailure(final Throwable t) {
+					outcome.setException(t);
+				}
+			},
+			MoreExecutors.sameThreadExecutor());
+		failOnExit(application,
+			outcome);
+		return outcome;
+	}
+
+	/**
+	 * Interrupts the current thread once the application exits, for waits
+	 * that block on IO. The caller must {@link Alarm#cancel() cancel} the
+	 * alarm once it stops waiting.
+	 */
+	static Alarm interruptOnExit(final Application application) {
+		final Alarm alarm = new Alarm(Thread.currentThread());
+		Futures.addCallback(application.termination(),
+			alarm,
+			MoreExecutors.sameThreadExecutor());
+		return alarm;
+	}
+
+	/**
+	 * Interrupts a thread when an application exits, unless cancelled first.
+	 */
+	static final class Alarm
+		implements FutureCallback<Integer> {
+
+		private final Thread thread;
+
+		private boolean cancelled = false;
+		private Integer exitCode = null;
+
+		Alarm(final Thread thread) {
+			this.thread = thread;
+		}
+
+		@Override
+		public synchronized void onSuccess(final Integer exitCode) {
+			if (!this.cancelled) {
+				this.exitCode = exitCode;
+				this.thread.interrupt();
+			}
+		}
+
+		@Override
+		public void onFailure(final Throwable t) {
+			// Exit unknown, so leave the thread waiting
+		}
+
+		/**
+		 * Must be called by the thread that set the alarm. If the alarm has
+		 * fired the interrupt it caused is cleared. May be called more than
+		 * once.
+		 * 
+		 * @return the exit code if the alarm fired, otherwise null
+		 */
+		synchronized Integer cancel() {
+			if (!this.cancelled) {
+				this.cancelled = true;
+				if (this.exitCode != null) {
+					Thread.interrupted();
+				}
+			}
+			return this.exitCode;
+		}
+	}
+}
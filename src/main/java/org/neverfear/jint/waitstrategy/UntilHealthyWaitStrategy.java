@@ -15,37 +15,260 @@
  */
 package org.neverfear.jint.waitstrategy;
 
-import static java.lang.Thread.interrupted;
-import static java.lang.Thread.yield;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
 import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.Deadline;
+import org.neverfear.jint.util.JintExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.SettableFuture;
 
+/**
+ * Polls a {@link HealthCheck} according to a {@link PollingPolicy} until it
+ * reports the application is healthy. Attempts are timed by the shared
+ * scheduler, see {@link JintExecutors#scheduler()}, and made on the shared IO
+ * executor since health checks may block, so no thread is busy between
+ * attempts. Waiting fails as soon as the application exits, see
+ * {@link Application#termination()}. A health check that is also
+ * {@link Closeable}, such as one holding a connection between attempts, is
+ * closed once the wait finishes.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
 public class UntilHealthyWaitStrategy
 	implements WaitStrategy {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(UntilHealthyWaitStrategy.class);
+
 	private final HealthCheck healthCheck;
+	private final PollingPolicy pollingPolicy;
+	private final ScheduledExecutorService scheduler;
+	private final Executor executor;
 
-	public UntilHealthyWaitStrategy(final HealthCheck healthCheck) {
+	UntilHealthyWaitStrategy(final HealthCheck healthCheck,
+			final PollingPolicy pollingPolicy,
+			final ScheduledExecutorService scheduler,
+			final Executor executor) {
 		super();
-		this.healthCheck = healthCheck;
+		this.healthCheck = checkNotNull(healthCheck, "health check cannot be null");
+		this.pollingPolicy = checkNotNull(pollingPolicy, "polling policy cannot be null");
+		this.scheduler = scheduler;
+		this.executor = executor;
+	}
+
+	public UntilHealthyWaitStrategy(final HealthCheck healthCheck, final PollingPolicy pollingPolicy) {
+		this(healthCheck,
+				pollingPolicy,
+				JintExecutors.scheduler(),
+				JintExecutors.io());
+	}
+
+	/**
+	 * Polls according to {@link PollingPolicy#defaultPolicy()}.
+	 */
+	public UntilHealthyWaitStrategy(final HealthCheck healthCheck) {
+		this(healthCheck,
+				PollingPolicy.defaultPolicy());
 	}
 
 	@Override
 	public void waitFor(final Application application) throws InterruptedException, ApplicationException {
-		while (!this.healthCheck.isHealthy(application)) {
-			if (interrupted()) {
-				throw new InterruptedException();
+		await(application,
+			null);
+	}
+
+	/**
+	 * The deadline is enforced by a timed wait on the outcome, so no thread is
+	 * needed to enforce it.
+	 */
+	@Override
+	public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+			throws InterruptedException, ApplicationException {
+		await(application,
+			Deadline.after(timeout,
+				unit));
+	}
+
+	/**
+	 * @param deadline null to wait indefinitely
+	 */
+	private void await(final Application application, final Deadline deadline)
+			throws InterruptedException, ApplicationException {
+		final SettableFuture<Void> healthy = SettableFuture.create();
+		Termination.failOnExit(application,
+			healthy);
+		final Attempt attempt = new Attempt(application,
+				healthy);
+		attempt.schedule(this.pollingPolicy.initialDelayNanos());
+
+		try {
+			if (deadline == null) {
+				healthy.get();
+			} else {
+				healthy.get(deadline.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+			}
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ApplicationException) {
+				throw (ApplicationException) cause;
 			}
+			throw new ApplicationException("Health check failed",
+					cause);
+		} catch (final TimeoutException e) {
+			throw new ApplicationTimeoutException(application + " was not healthy according to " + this.healthCheck,
+					deadline.timeoutNanos(),
+					TimeUnit.NANOSECONDS,
+					attempt.durations());
+		} finally {
+			// Stops any further attempts if interrupted or timed out
+			healthy.cancel(false);
+			attempt.finish();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [healthCheck=" + this.healthCheck + ", pollingPolicy="
+				+ this.pollingPolicy + "]";
+	}
+
+	/**
+	 * Each attempt is handed from the scheduler to the executor, and then
+	 * schedules the next until the outcome is known.
+	 */
+	private final class Attempt
+		implements Runnable {
+
+		private final Application application;
+		private final SettableFuture<Void> healthy;
+		private int attempts = 0;
 
-			if (!application.isRunning()) {
-				final int exitCode = application.exitCode();
-				throw new ApplicationException("Application has exited with code " + exitCode);
+		/**
+		 * How long each attempt took, read by the waiting thread on timeout.
+		 */
+		private final List<Long> durations = Collections.synchronizedList(new ArrayList<Long>());
+
+		/**
+		 * Guarded by this. Whichever of the waiting thread and an attempt in
+		 * flight is last releases the health check.
+		 */
+		private boolean running = false;
+		private boolean finished = false;
+
+		Attempt(final Application application, final SettableFuture<Void> healthy) {
+			this.application = application;
+			this.healthy = healthy;
+		}
+
+		void schedule(final long delayNanos) {
+			final Runnable handOff = new Runnable() {
+
+				@Override
+				public void run() {
+					UntilHealthyWaitStrategy.this.executor.execute(Attempt.this);
+				}
+			};
+			UntilHealthyWaitStrategy.this.scheduler.schedule(handOff,
+				delayNanos,
+				TimeUnit.NANOSECONDS);
+		}
+
+		List<Long> durations() {
+			synchronized (this.durations) {
+				return new ArrayList<>(this.durations);
 			}
+		}
 
-			yield();
+		/**
+		 * Called once the waiting thread stops waiting. Releases the health
+		 * check now, or once the attempt in flight finishes.
+		 */
+		void finish() {
+			synchronized (this) {
+				this.finished = true;
+				if (this.running) {
+					return;
+				}
+			}
+			release();
 		}
-	}
 
+		private void release() {
+			if (UntilHealthyWaitStrategy.this.healthCheck instanceof Closeable) {
+				try {
+					((Closeable) UntilHealthyWaitStrategy.this.healthCheck).close();
+				} catch (final IOException e) {
+					LOGGER.warn("Failed to close " + UntilHealthyWaitStrategy.this.healthCheck, e);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (this.finished || this.healthy.isDone()) {
+					return;
+				}
+				this.running = true;
+			}
+
+			try {
+				attempt();
+			} finally {
+				final boolean release;
+				synchronized (this) {
+					this.running = false;
+					release = this.finished;
+				}
+				if (release) {
+					release();
+				}
+			}
+		}
+
+		private void attempt() {
+			try {
+				this.attempts++;
+				final long started = System.nanoTime();
+				final boolean isHealthy;
+				try {
+					isHealthy = UntilHealthyWaitStrategy.this.healthCheck.isHealthy(this.application);
+				} finally {
+					this.durations.add(System.nanoTime() - started);
+				}
+				if (isHealthy) {
+					this.healthy.set(null);
+					return;
+				}
+
+				if (!this.application.isRunning()) {
+					throw Termination.exited(this.application.exitCode());
+				}
+
+				if (!this.healthy.isDone()) {
+					schedule(UntilHealthyWaitStrategy.this.pollingPolicy.intervalNanos(this.attempts));
+				}
+			} catch (final Exception e) {
+				this.healthy.setException(e);
+			}
+		}
+	}
 }
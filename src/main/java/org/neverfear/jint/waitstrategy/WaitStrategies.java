@@ -15,11 +15,22 @@
  */
 package org.neverfear.jint.waitstrategy;
 
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import javax.management.ObjectName;
 
 import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.notify.NotifyChannel;
+
+import com.google.common.base.Predicate;
 
 /**
  * @author doug@neverfear.org
@@ -37,10 +48,103 @@ public final class WaitStrategies {
 				port));
 	}
 
+	public static WaitStrategy forJmxBean(final ObjectName beanName,
+			final String hostname,
+			final int port,
+			final PollingPolicy pollingPolicy) {
+		return untilHealthy(new JmxBeanRegistrationHealthCheck(beanName,
+				hostname,
+				port),
+			pollingPolicy);
+	}
+
 	public static WaitStrategy forTcpPort(final int port) {
 		return new UntilHealthyWaitStrategy(new TcpPortHealthCheck(port));
 	}
 
+	public static WaitStrategy forTcpPort(final int port, final PollingPolicy pollingPolicy) {
+		return untilHealthy(new TcpPortHealthCheck(port),
+			pollingPolicy);
+	}
+
+	/**
+	 * Waits until every port on localhost accepts a TCP connection, probing
+	 * them all at once without blocking a thread per port.
+	 */
+	public static WaitStrategy forTcpPorts(final int... ports) {
+		final List<InetSocketAddress> endpoints = new ArrayList<>(ports.length);
+		for (final int port : ports) {
+			endpoints.add(new InetSocketAddress("localhost",
+					port));
+		}
+		return forTcpPorts(endpoints,
+			PollingPolicy.defaultPolicy());
+	}
+
+	/**
+	 * Waits until every endpoint accepts a TCP connection, probing them all at
+	 * once without blocking a thread per endpoint.
+	 */
+	public static WaitStrategy forTcpPorts(final Collection<InetSocketAddress> endpoints,
+			final PollingPolicy pollingPolicy) {
+		return new TcpPortsWaitStrategy(endpoints,
+				pollingPolicy);
+	}
+
+	/**
+	 * Polls the URL until it responds 200 OK.
+	 */
+	public static WaitStrategy forHttp(final URL url) {
+		return new UntilHealthyWaitStrategy(new HttpHealthCheck(url));
+	}
+
+	/**
+	 * Polls the URL according to the policy until it responds with the
+	 * expected status and a body satisfying the predicate.
+	 */
+	public static WaitStrategy forHttp(final URL url,
+			final int expectedStatus,
+			final Predicate<? super String> bodyPredicate,
+			final PollingPolicy pollingPolicy) {
+		return untilHealthy(new HttpHealthCheck(url,
+				expectedStatus,
+				bodyPredicate),
+			pollingPolicy);
+	}
+
+	/**
+	 * Waits until the marker file exists, watching its directory rather than
+	 * polling for it.
+	 */
+	public static WaitStrategy forFile(final Path marker) {
+		return new FileMarkerWaitStrategy(marker);
+	}
+
+	/**
+	 * Waits until the marker file exists and satisfies the predicate, watching
+	 * its directory rather than polling for it.
+	 */
+	public static WaitStrategy forFile(final Path marker, final Predicate<? super Path> predicate) {
+		return new FileMarkerWaitStrategy(marker,
+				predicate);
+	}
+
+	/**
+	 * Waits until the application reports it is ready on the channel.
+	 */
+	public static WaitStrategy forNotify(final NotifyChannel channel) {
+		return new NotifyWaitStrategy(channel);
+	}
+
+	/**
+	 * Polls the health check according to the policy until it reports the
+	 * application is healthy.
+	 */
+	public static WaitStrategy untilHealthy(final HealthCheck healthCheck, final PollingPolicy pollingPolicy) {
+		return new UntilHealthyWaitStrategy(healthCheck,
+				pollingPolicy);
+	}
+
 	public static WaitStrategy consoleMatches(final String regex) {
 		return consoleMatches(Pattern.compile(regex));
 	}
@@ -48,4 +152,40 @@ public final class WaitStrategies {
 	public static WaitStrategy consoleMatches(final Pattern pattern) {
 		return new ConsoleWaitStrategy(pattern);
 	}
+
+	/**
+	 * Waits until every literal has appeared on stdout, scanning stdout once
+	 * for all of them.
+	 */
+	public static WaitStrategy consoleContainsAll(final String... literals) {
+		return new MultiPatternConsoleWaitStrategy(Arrays.asList(literals),
+				Collections.<Pattern> emptyList());
+	}
+
+	/**
+	 * Waits until every pattern has been found on stdout, scanning stdout once
+	 * for all of them.
+	 */
+	public static WaitStrategy consoleMatchesAll(final Pattern... patterns) {
+		return new MultiPatternConsoleWaitStrategy(Collections.<String> emptyList(),
+				Arrays.asList(patterns));
+	}
+
+	/**
+	 * Waits on every strategy at once, completing once they have all
+	 * completed. The first to fail fails the whole wait.
+	 */
+	public static WaitStrategy allOf(final WaitStrategy... strategies) {
+		return new CompositeWaitStrategy(Arrays.asList(strategies),
+				CompositeWaitStrategy.Mode.ALL);
+	}
+
+	/**
+	 * Waits on every strategy at once, completing once any one of them has
+	 * completed. The first to fail fails the whole wait.
+	 */
+	public static WaitStrategy anyOf(final WaitStrategy... strategies) {
+		return new CompositeWaitStrategy(Arrays.asList(strategies),
+				CompositeWaitStrategy.Mode.ANY);
+	}
 }
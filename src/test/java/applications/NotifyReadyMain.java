@@ -0,0 +1,16 @@
+package applications;
+
+import org.neverfear.jint.notify.Notifier;
+
+public class NotifyReadyMain {
+
+	public static void main(final String... strings) throws Exception {
+		try (Notifier notifier = Notifier.fromEnvironment()) {
+			notifier.status("Starting");
+			notifier.ready();
+			while (true) {
+				Thread.sleep(Long.MAX_VALUE);
+			}
+		}
+	}
+}
@@ -0,0 +1,351 @@
+package org.neverfear.jint.application;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neverfear.jint.matcher.JintMatchers.causedBy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationExitedException;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * The application set up in this test looks like this, where each application
+ * depends on those it points to.
+ * 
+ * <pre>
+ * +---+     +---+
+ * | A +----&gt;| B +-----+
+ * +---+     +---+     v
+ *                   +---+
+ *                   | C |
+ *                   +---+
+ * +---+
+ * | D |
+ * +---+
+ * </pre>
+ */
+public class DependencyGroupTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(10));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private List<Application> startOrder;
+	private List<Application> stopOrder;
+
+	private Application applicationA;
+	private Application applicationB;
+	private Application applicationC;
+	private Application applicationD;
+
+	private DependencyGroup subject;
+
+	@Before
+	public void before() throws Exception {
+		this.startOrder = Collections.synchronizedList(Lists.<Application> newArrayList());
+		this.stopOrder = Collections.synchronizedList(Lists.<Application> newArrayList());
+
+		this.applicationA = mockApplication("A", this.startOrder, this.stopOrder);
+		this.applicationB = mockApplication("B", this.startOrder, this.stopOrder);
+		this.applicationC = mockApplication("C", this.startOrder, this.stopOrder);
+		this.applicationD = mockApplication("D", this.startOrder, this.stopOrder);
+
+		this.subject = DependencyGroup.create()
+				.add(this.applicationC)
+				.add(this.applicationD)
+				.add(this.applicationB, this.applicationC)
+				.add(this.applicationA, this.applicationB);
+	}
+
+	@Test
+	public void givenDependencies_whenStart_expectEachStartedAfterItsDependencies() throws Exception {
+		/*
+		 * When
+		 */
+		this.subject.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals(4, this.startOrder.size());
+		assertTrue(this.startOrder.indexOf(this.applicationC) < this.startOrder.indexOf(this.applicationB));
+		assertTrue(this.startOrder.indexOf(this.applicationB) < this.startOrder.indexOf(this.applicationA));
+		verify(this.applicationA).awaitStart();
+		verify(this.applicationB).awaitStart();
+		verify(this.applicationC).awaitStart();
+		verify(this.applicationD).awaitStart();
+	}
+
+	@Test
+	public void givenSlowIndependentApplication_whenStart_expectDependentsNotBlocked() throws Exception {
+		/*
+		 * Given
+		 */
+		final CountDownLatch aStarted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				// D is only ready once the whole of the chain has started
+				aStarted.await();
+				return null;
+			}
+		}).when(this.applicationD)
+				.awaitStart();
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				aStarted.countDown();
+				return null;
+			}
+		}).when(this.applicationA)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		this.subject.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals(0, aStarted.getCount());
+	}
+
+	@Test
+	public void givenParallelismOfOne_whenStart_expectAllStarted() throws Exception {
+		/*
+		 * When
+		 */
+		this.subject.parallel(1)
+				.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals(4, this.startOrder.size());
+	}
+
+	@Test
+	public void givenStarted_whenStop_expectEachStoppedBeforeItsDependencies() throws Exception {
+		/*
+		 * Given
+		 */
+		this.subject.start();
+
+		/*
+		 * When
+		 */
+		this.subject.stop();
+
+		/*
+		 * Then
+		 */
+		assertEquals(4, this.stopOrder.size());
+		assertTrue(this.stopOrder.indexOf(this.applicationA) < this.stopOrder.indexOf(this.applicationB));
+		assertTrue(this.stopOrder.indexOf(this.applicationB) < this.stopOrder.indexOf(this.applicationC));
+		verify(this.applicationD).awaitStop();
+	}
+
+	@Test
+	public void givenApplicationFailsToStop_whenStop_expectDependenciesStillStopped() throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationException failure = new ApplicationException("B failed");
+		doThrow(failure).when(this.applicationB)
+				.stop();
+
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expect(causedBy(failure));
+
+		try {
+			/*
+			 * When
+			 */
+			this.subject.stop();
+		} finally {
+			/*
+			 * Then
+			 */
+			verify(this.applicationC).stop();
+			verify(this.applicationA).stop();
+		}
+	}
+
+	@Test
+	public void givenDependencyFailsToStart_whenStart_expectDependentsNotStartedAndStartedStopped() throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationException failure = new ApplicationException("B failed");
+		doThrow(failure).when(this.applicationB)
+				.awaitStart();
+
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expect(causedBy(failure));
+
+		try {
+			/*
+			 * When
+			 */
+			this.subject.start();
+		} finally {
+			/*
+			 * Then
+			 */
+			verify(this.applicationA, never()).start();
+			verify(this.applicationB).stop();
+			verify(this.applicationC).stop();
+			assertTrue(this.stopOrder.indexOf(this.applicationB) < this.stopOrder.indexOf(this.applicationC));
+		}
+	}
+
+	@Test
+	public void givenApplicationNeverStarts_whenStartWithTimeout_expectTimeoutAndStartedStopped() throws Exception {
+		/*
+		 * Given
+		 */
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+				return null;
+			}
+		}).when(this.applicationC)
+				.awaitStart(anyLong(), any(TimeUnit.class));
+
+		this.expectedException.expect(instanceOf(ApplicationException.class));
+
+		try {
+			/*
+			 * When
+			 */
+			this.subject.start(100, TimeUnit.MILLISECONDS);
+		} finally {
+			/*
+			 * Then
+			 */
+			verify(this.applicationB, never()).start();
+			verify(this.applicationC).stop();
+		}
+	}
+
+	@Test
+	public void givenApplicationExitsAfterStarting_whenStart_expectExitReportedAndStartedStopped() throws Exception {
+		/*
+		 * Given
+		 */
+		final SettableFuture<Integer> exitD = SettableFuture.create();
+		when(this.applicationD.termination()).thenReturn(exitD);
+
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				exitD.set(2);
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		}).when(this.applicationC)
+				.awaitStart();
+
+		this.expectedException.expect(ApplicationExitedException.class);
+
+		try {
+			/*
+			 * When
+			 */
+			this.subject.start();
+		} finally {
+			/*
+			 * Then
+			 */
+			assertEquals(0, interrupted.getCount());
+			verify(this.applicationC).stop();
+			verify(this.applicationD).stop();
+			verify(this.applicationB, never()).start();
+		}
+	}
+
+	@Test
+	public void givenDependencyNotAdded_whenAdd_expectIllegalArgumentException() {
+		/*
+		 * Given
+		 */
+		final Application unknown = mock(Application.class, "unknown");
+
+		this.expectedException.expect(IllegalArgumentException.class);
+
+		/*
+		 * When
+		 */
+		DependencyGroup.create()
+				.add(this.applicationA, unknown);
+	}
+
+	private static Application mockApplication(final String name, final List<Application> startOrder,
+			final List<Application> stopOrder) throws Exception {
+		final Application application = mock(Application.class, name);
+		when(application.termination()).thenReturn(SettableFuture.<Integer> create());
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				startOrder.add(application);
+				return null;
+			}
+
+		}).when(application)
+				.start();
+
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				stopOrder.add(application);
+				return null;
+			}
+
+		}).when(application)
+				.stop();
+
+		return application;
+	}
+}
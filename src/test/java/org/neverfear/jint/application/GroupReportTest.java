@@ -0,0 +1,145 @@
+package org.neverfear.jint.application;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neverfear.jint.application.GroupReport.NOT_RECORDED;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.application.GroupReport.Timing;
+
+public class GroupReportTest {
+
+	private Application applicationA;
+	private Application applicationB1;
+	private Application applicationB2;
+
+	@Before
+	public void before() {
+		this.applicationA = mock(Application.class, "A");
+		this.applicationB1 = mock(Application.class, "B1");
+		this.applicationB2 = mock(Application.class, "B\"2");
+	}
+
+	@Test
+	public void givenAllReady_whenCriticalPath_expectLastReadyOfEachPhase() {
+		/*
+		 * Given
+		 */
+		final Timing timingA = timing(this.applicationA, 0, 0, 10);
+		final Timing timingB1 = timing(this.applicationB1, 1, 10, 40);
+		final Timing timingB2 = timing(this.applicationB2, 1, 12, 30);
+		final GroupReport subject = new GroupReport(asList(timingA, timingB1, timingB2), 2, true);
+
+		/*
+		 * When
+		 */
+		final List<Timing> criticalPath = subject.criticalPath();
+
+		/*
+		 * Then
+		 */
+		assertEquals(asList(timingA, timingB1), criticalPath);
+		assertEquals(millis(40), subject.startNanos());
+		assertEquals(millis(30), timingB1.startNanos());
+		assertEquals(NOT_RECORDED, timingB1.stopNanos());
+	}
+
+	@Test
+	public void givenPhaseNotReady_whenCriticalPath_expectOnlyPhasesBefore() {
+		/*
+		 * Given
+		 */
+		final Timing timingA = timing(this.applicationA, 0, 0, 10);
+		final Timing timingB1 = timing(this.applicationB1, 1, 10, NOT_RECORDED);
+		final Timing timingB2 = timing(this.applicationB2, 1, 12, 30);
+		final GroupReport subject = new GroupReport(asList(timingA, timingB1, timingB2), 2, true);
+
+		/*
+		 * When
+		 */
+		final List<Timing> criticalPath = subject.criticalPath();
+
+		/*
+		 * Then
+		 */
+		assertEquals(Collections.singletonList(timingA), criticalPath);
+		assertEquals(NOT_RECORDED, subject.startNanos());
+	}
+
+	@Test
+	public void givenReadinessNotMeasured_whenCriticalPath_expectNone() {
+		/*
+		 * Given
+		 */
+		final Timing timingA = timing(this.applicationA, 0, 0, 10);
+		final GroupReport subject = new GroupReport(asList(timingA), 1, false);
+
+		/*
+		 * When
+		 */
+		final List<Timing> criticalPath = subject.criticalPath();
+
+		/*
+		 * Then
+		 */
+		assertFalse(subject.hasCriticalPath());
+		assertEquals(Collections.<Timing> emptyList(), criticalPath);
+		assertEquals(millis(10), subject.startNanos());
+	}
+
+	@Test
+	public void givenReport_whenToTraceEvents_expectSpanPerStartAndInstantPerUnfinished() {
+		/*
+		 * Given
+		 */
+		final Timing timingA = timing(this.applicationA, 0, 0, 10);
+		final Timing timingB2 = timing(this.applicationB2, 1, 12, NOT_RECORDED);
+		final GroupReport subject = new GroupReport(asList(timingA, timingB2), 2, true);
+
+		/*
+		 * When
+		 */
+		final String json = subject.toTraceEvents();
+
+		/*
+		 * Then
+		 */
+		assertTrue(json,
+			json.startsWith("{\"traceEvents\":["));
+		assertTrue(json,
+			json.contains("{\"name\":\"start A\",\"cat\":\"start\",\"pid\":1,\"tid\":1,\"ts\":0,\"ph\":\"X\",\"dur\":10000,"
+					+ "\"args\":{\"finished\":true,\"critical\":true,\"phase\":0}}"));
+		assertTrue(json,
+			json.contains("{\"name\":\"start B\\\"2\",\"cat\":\"start\",\"pid\":1,\"tid\":2,\"ts\":12000,\"ph\":\"i\",\"s\":\"t\","
+					+ "\"args\":{\"finished\":false,\"critical\":false,\"phase\":1}}"));
+		assertTrue(json,
+			json.contains("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"B\\\"2\"}}"));
+		assertFalse(json,
+			json.contains("stop A"));
+	}
+
+	private static Timing timing(final Application application,
+			final int phase,
+			final long startInitiatedMillis,
+			final long readyMillis) {
+		return new Timing(application,
+				phase,
+				millis(startInitiatedMillis),
+				millis(readyMillis),
+				NOT_RECORDED,
+				NOT_RECORDED);
+	}
+
+	private static long millis(final long millis) {
+		return millis == NOT_RECORDED ? NOT_RECORDED : TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+}
@@ -2,20 +2,32 @@ package org.neverfear.jint.application;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.neverfear.jint.matcher.JintMatchers.causedBy;
 import static org.neverfear.jint.matcher.JintMatchers.rootCause;
 import static org.neverfear.jint.matcher.JintMatchers.surpressed;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.hamcrest.Matcher;
@@ -30,8 +42,11 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationExitedException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * The application set up in this test looks like this.
@@ -67,8 +82,8 @@ public class GroupTest {
 
 	@Before
 	public void before() throws Exception {
-		this.startOrder = Lists.newArrayList();
-		this.stopOrder = Lists.newArrayList();
+		this.startOrder = Collections.synchronizedList(Lists.<Application> newArrayList());
+		this.stopOrder = Collections.synchronizedList(Lists.<Application> newArrayList());
 
 		this.applicationA1 = mockApplication("A1", this.startOrder, this.stopOrder);
 		this.applicationB1 = mockApplication("B1", this.startOrder, this.stopOrder);
@@ -935,9 +950,567 @@ public class GroupTest {
 		verify(this.applicationA2).awaitStop();
 	}
 
+	@Test
+	public void givenFirstApplicationTimesOut_whenStartGroupWithTimeout_expectFirstApplicationStoppedAndOthersNotStarted()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationTimeoutException timeout = new ApplicationTimeoutException("C1 slow", 1, TimeUnit.SECONDS);
+		doThrow(timeout)
+				.when(this.applicationC1)
+				.awaitStart(anyLong(), any(TimeUnit.class));
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.start(1, TimeUnit.SECONDS);
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(timeout, caught.getCause());
+
+		verify(this.applicationC1, never()).awaitStart();
+		verify(this.applicationC1).stop();
+		verify(this.applicationC1).awaitStop();
+
+		verify(this.applicationB1, never()).start();
+		verify(this.applicationB2, never()).start();
+		verify(this.applicationA1, never()).start();
+		verify(this.applicationA2, never()).start();
+	}
+
+	@Test
+	public void givenParallel_whenStartGroup_expectApplicationsOfPhaseAwaitedConcurrently() throws Exception {
+		/*
+		 * Given
+		 */
+		final CyclicBarrier bothAwaiting = new CyclicBarrier(2);
+		final Answer<Void> awaitOther = new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				// Fails unless the other application is awaited at the same time
+				bothAwaiting.await(5,
+					TimeUnit.SECONDS);
+				return null;
+			}
+		};
+		doAnswer(awaitOther).when(this.applicationC1)
+				.awaitStart();
+		doAnswer(awaitOther).when(this.applicationC2)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		this.subject.parallel(2)
+				.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals(asList(this.applicationC1, this.applicationC2),
+			sorted(this.startOrder.subList(0, 2)));
+		assertEquals(asList(this.applicationB1, this.applicationB2),
+			sorted(this.startOrder.subList(2, 4)));
+		assertEquals(asList(this.applicationA1, this.applicationA2),
+			sorted(this.startOrder.subList(4, 6)));
+	}
+
+	@Test
+	public void givenParallel_andSecondApplicationThrowsExceptionOnAwaitStart_whenStartGroup_expectFirstInterruptedAndBothStopped()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		}).when(this.applicationC1)
+				.awaitStart();
+		final ApplicationException exceptionC2 = new ApplicationException("C2");
+		doThrow(exceptionC2).when(this.applicationC2)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.parallel(2)
+					.start();
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(exceptionC2, caught.getCause());
+		assertEquals(0, interrupted.getCount());
+
+		verify(this.applicationC1).stop();
+		verify(this.applicationC1).awaitStop();
+		verify(this.applicationC2).stop();
+		verify(this.applicationC2).awaitStop();
+
+		verify(this.applicationB1, never()).start();
+		verify(this.applicationB2, never()).start();
+		verify(this.applicationA1, never()).start();
+		verify(this.applicationA2, never()).start();
+	}
+
+	@Test
+	public void givenPhase_whenStopGroup_expectApplicationsOfPhaseAwaitedConcurrently() throws Exception {
+		/*
+		 * Given
+		 */
+		final CyclicBarrier bothAwaiting = new CyclicBarrier(2);
+		final Answer<Void> awaitOther = new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				// Fails unless the other application is awaited at the same time
+				bothAwaiting.await(5,
+					TimeUnit.SECONDS);
+				return null;
+			}
+		};
+		doAnswer(awaitOther).when(this.applicationB1)
+				.awaitStop();
+		doAnswer(awaitOther).when(this.applicationB2)
+				.awaitStop();
+
+		/*
+		 * When
+		 */
+		this.subject.stop();
+
+		/*
+		 * Then
+		 */
+		assertEquals(asList(this.applicationA1, this.applicationA2),
+			sorted(this.stopOrder.subList(0, 2)));
+		assertEquals(asList(this.applicationB1, this.applicationB2),
+			sorted(this.stopOrder.subList(2, 4)));
+		assertEquals(asList(this.applicationC1, this.applicationC2),
+			sorted(this.stopOrder.subList(4, 6)));
+	}
+
+	@Test
+	public void givenApplicationNeverStops_whenStopGroupWithTimeout_expectInterruptedAndLaterPhasesStoppedWithoutAwait()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		}).when(this.applicationA1)
+				.awaitStop();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.stop(100,
+				TimeUnit.MILLISECONDS);
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertThat(caught.getCause(),
+			instanceOf(ApplicationTimeoutException.class));
+		assertTrue(interrupted.await(5,
+			TimeUnit.SECONDS));
+
+		verify(this.applicationA2).awaitStop();
+
+		verify(this.applicationB1).stop();
+		verify(this.applicationB2).stop();
+		verify(this.applicationC1).stop();
+		verify(this.applicationC2).stop();
+
+		verify(this.applicationB1, never()).awaitStop();
+		verify(this.applicationB2, never()).awaitStop();
+		verify(this.applicationC1, never()).awaitStop();
+		verify(this.applicationC2, never()).awaitStop();
+
+		final String message = caught.getCause()
+				.getMessage();
+		assertThat(message,
+			containsString(this.applicationA1.toString()));
+		assertThat(message,
+			containsString(this.applicationC2.toString()));
+	}
+
+	@Test
+	public void givenStartedApplicationNeverStops_whenStartGroupWithTimeoutTimesOut_expectRollbackBoundedAndReported()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationTimeoutException timeout = new ApplicationTimeoutException("B1 slow", 100,
+				TimeUnit.MILLISECONDS);
+		doThrow(timeout)
+				.when(this.applicationB1)
+				.awaitStart(anyLong(), any(TimeUnit.class));
+
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		}).when(this.applicationB1)
+				.awaitStop();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.start(100,
+				TimeUnit.MILLISECONDS);
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(timeout, caught.getCause());
+		assertEquals(1, caught.getSuppressed().length);
+		assertThat(caught.getSuppressed()[0].getCause(),
+			instanceOf(ApplicationTimeoutException.class));
+		assertTrue(interrupted.await(5,
+			TimeUnit.SECONDS));
+
+		verify(this.applicationB1).stop();
+		verify(this.applicationC1).stop();
+		verify(this.applicationC2).stop();
+	}
+
+	@Test
+	public void givenApplicationFailsToStop_whenStopGroupWithTimeout_expectOthersStoppedAndFailureReported()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationException exceptionB1 = new ApplicationException("B1");
+		doThrow(exceptionB1).when(this.applicationB1)
+				.stop();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.stop(5,
+				TimeUnit.SECONDS);
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(exceptionB1, caught.getCause()
+				.getCause());
+
+		verifyStopAllApplications();
+		verifyAwaitStopAllApplications();
+	}
+
+	@Test
+	public void givenApplicationExitsWhileOtherStarting_whenStartGroup_expectOtherInterruptedAndExitReported()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final SettableFuture<Integer> exitC1 = SettableFuture.create();
+		when(this.applicationC1.termination()).thenReturn(exitC1);
+
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				exitC1.set(3);
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		}).when(this.applicationC2)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.start();
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertThat(caught,
+			instanceOf(ApplicationExitedException.class));
+		assertEquals(3, ((ApplicationExitedException) caught).exitCode());
+		assertTrue(caught.getMessage(),
+			caught.getMessage()
+					.contains("C1"));
+		assertEquals(0, interrupted.getCount());
+		assertFalse(Thread.interrupted());
+
+		verify(this.applicationC1).stop();
+		verify(this.applicationC2).stop();
+
+		verify(this.applicationB1, never()).start();
+		verify(this.applicationB2, never()).start();
+		verify(this.applicationA1, never()).start();
+		verify(this.applicationA2, never()).start();
+	}
+
+	@Test
+	public void givenOneShotApplicationExitsCleanlyWhileOtherStarting_whenStartGroup_expectGroupStarted()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final SettableFuture<Integer> exitC1 = SettableFuture.create();
+		when(this.applicationC1.termination()).thenReturn(exitC1);
+
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				exitC1.set(0);
+				return null;
+			}
+		}).when(this.applicationC2)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		this.subject.start();
+
+		/*
+		 * Then
+		 */
+		assertFalse(Thread.interrupted());
+
+		verify(this.applicationC1, never()).stop();
+		verify(this.applicationA1).awaitStart();
+		verify(this.applicationA2).awaitStart();
+	}
+
+	@Test
+	public void givenParallel_andApplicationExitsWhileStarting_whenStartGroup_expectAllInterruptedAndExitReported()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final SettableFuture<Integer> exitC1 = SettableFuture.create();
+		when(this.applicationC1.termination()).thenReturn(exitC1);
+
+		final CountDownLatch interrupted = new CountDownLatch(2);
+		final Answer<Void> awaitForever = new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				try {
+					new CountDownLatch(1).await();
+				} catch (final InterruptedException e) {
+					interrupted.countDown();
+					throw e;
+				}
+				return null;
+			}
+		};
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				// Exits without its own wait noticing
+				exitC1.set(1);
+				return awaitForever.answer(invocation);
+			}
+		}).when(this.applicationC1)
+				.awaitStart();
+		doAnswer(awaitForever).when(this.applicationC2)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		ApplicationException caught = null;
+		try {
+			this.subject.parallel(2)
+					.start();
+		} catch (final ApplicationException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertThat(caught,
+			instanceOf(ApplicationExitedException.class));
+		assertEquals(1, ((ApplicationExitedException) caught).exitCode());
+		assertEquals(0, interrupted.getCount());
+
+		verify(this.applicationC1).stop();
+		verify(this.applicationC2).stop();
+
+		verify(this.applicationB1, never()).start();
+		verify(this.applicationB2, never()).start();
+	}
+
+	@Test
+	public void givenParallel_andSlowApplication_whenStartAndStopGroup_expectReportWithSlowApplicationOnCriticalPath()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(50);
+				return null;
+			}
+		}).when(this.applicationB1)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		this.subject.parallel(2)
+				.start();
+		this.subject.stop();
+		final GroupReport report = this.subject.report();
+
+		/*
+		 * Then
+		 */
+		assertEquals(3, report.phases());
+		assertEquals(6, report.timings()
+				.size());
+		assertTrue(report.hasCriticalPath());
+		assertEquals(this.applicationB1, report.criticalPath()
+				.get(1)
+				.application());
+		assertTrue(report.criticalPath()
+				.get(1)
+				.startNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+		for (final GroupReport.Timing timing : report.timings()) {
+			assertTrue(timing.toString(),
+				timing.startInitiatedNanos() <= timing.readyNanos());
+			assertTrue(timing.toString(),
+				timing.readyNanos() <= timing.stopInitiatedNanos());
+			assertTrue(timing.toString(),
+				timing.stopInitiatedNanos() <= timing.stoppedNanos());
+		}
+	}
+
+	@Test
+	public void givenSlowFirstApplicationOfPhase_whenStartGroupOneAtATime_expectReportWithoutCriticalPath()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		doAnswer(new Answer<Void>() {
+
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(50);
+				return null;
+			}
+		}).when(this.applicationB1)
+				.awaitStart();
+
+		/*
+		 * When
+		 */
+		this.subject.start();
+		final GroupReport report = this.subject.report();
+
+		/*
+		 * Then
+		 */
+		// B2 was only awaited after B1, so would wrongly appear the slowest
+		assertFalse(report.hasCriticalPath());
+		assertTrue(report.criticalPath()
+				.isEmpty());
+		assertEquals(6, report.timings()
+				.size());
+	}
+
+	private static List<Application> sorted(final List<Application> applications) {
+		final List<Application> sorted = Lists.newArrayList(applications);
+		Collections.sort(sorted,
+			new Comparator<Application>() {
+
+				@Override
+				public int compare(final Application o1, final Application o2) {
+					return o1.toString()
+							.compareTo(o2.toString());
+				}
+			});
+		return sorted;
+	}
+
 	private static Application mockApplication(final String name, final List<Application> startOrder,
 			final List<Application> stopOrder) throws Exception {
 		final Application application = mock(Application.class, name);
+		when(application.termination()).thenReturn(SettableFuture.<Integer> create());
 		final AtomicBoolean running = new AtomicBoolean();
 		doAnswer(new Answer<Void>() {
 
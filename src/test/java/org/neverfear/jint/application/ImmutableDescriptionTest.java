@@ -64,6 +64,7 @@ public class ImmutableDescriptionTest {
 			verify(description).command();
 			verify(description).isIOInherited();
 			verify(description).isErrorMappedToOutput();
+			verify(description).consoleMode();
 			assertEquals(this.subject, newDescription);
 		}
 	}
@@ -0,0 +1,77 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AhoCorasickTest {
+
+	@Test
+	public void givenOverlappingKeywords_whenScan_expectEveryOccurrence() {
+		/*
+		 * Given
+		 */
+		final List<String> keywords = Arrays.asList("he", "she", "his", "hers");
+
+		/*
+		 * When
+		 */
+		final List<String> actual = scan(keywords, "ushers");
+
+		/*
+		 * Then
+		 */
+		assertEquals(Arrays.asList("3:she", "3:he", "5:hers"), actual);
+	}
+
+	@Test
+	public void givenKeywordIsSuffixOfAnother_whenScan_expectBoth() {
+		/*
+		 * Given
+		 */
+		final List<String> keywords = Arrays.asList("server ready", "ready");
+
+		/*
+		 * When
+		 */
+		final List<String> actual = scan(keywords, "INFO server ready");
+
+		/*
+		 * Then
+		 */
+		assertEquals(Arrays.asList("16:server ready", "16:ready"), actual);
+	}
+
+	@Test
+	public void givenNoKeywordPresent_whenScan_expectNoMatches() {
+		assertEquals(Arrays.<String> asList(), scan(Arrays.asList("ready"), "starting"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenEmptyKeyword_whenConstruct_expectIllegalArgument() {
+		new AhoCorasick(Arrays.asList("ready", ""));
+	}
+
+	/**
+	 * @return each match as the index of its last character and the keyword
+	 */
+	private static List<String> scan(final List<String> keywords, final String text) {
+		final AhoCorasick automaton = new AhoCorasick(keywords);
+		final List<String> matches = new ArrayList<>();
+		int state = AhoCorasick.START;
+		for (int index = 0; index < text.length(); index++) {
+			state = automaton.next(state, text.charAt(index));
+			for (final int keyword : automaton.matches(state)) {
+				matches.add(index + ":" + keywords.get(keyword));
+			}
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,121 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.junit.runners.MethodSorters;
+import org.neverfear.jint.api.Console;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConsoleWatcherTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(1));
+
+	private Console mockConsole;
+	private ConsoleWatcher subject;
+
+	@Before
+	public void before() throws Exception {
+		this.mockConsole = mock(Console.class);
+		this.subject = new ConsoleWatcher(this.mockConsole,
+				MoreExecutors.sameThreadExecutor());
+	}
+
+	@Test
+	public void givenLiteralsAndPatterns_whenStart_expectEachCompletesWithFirstMatchingLine() throws Exception {
+		/*
+		 * Given
+		 */
+		givenOutput("starting\ncache warm\nready on port 80\nmigration done\nready on port 81\n");
+		final ListenableFuture<String> ready = this.subject.whenContains("ready");
+		final ListenableFuture<String> warm = this.subject.whenContains("cache warm");
+		final ListenableFuture<String> migrated = this.subject.whenMatches(Pattern.compile("migration \\w+"));
+
+		/*
+		 * When
+		 */
+		this.subject.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals("ready on port 80", ready.get());
+		assertEquals("cache warm", warm.get());
+		assertEquals("migration done", migrated.get());
+	}
+
+	@Test
+	public void givenLiteralNeverAppears_whenStart_expectFailsWithEndOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		givenOutput("starting\nready\n");
+		final ListenableFuture<String> ready = this.subject.whenContains("ready");
+		final ListenableFuture<String> warm = this.subject.whenContains("cache warm");
+
+		/*
+		 * When
+		 */
+		this.subject.start();
+
+		/*
+		 * Then
+		 */
+		assertEquals("ready", ready.get());
+		try {
+			warm.get();
+		} catch (final ExecutionException e) {
+			assertTrue(e.getCause() instanceof EOFException);
+			return;
+		}
+		throw new AssertionError("Expected failure");
+	}
+
+	@Test
+	public void givenUnmatchedPattern_whenClose_expectCancelled() throws Exception {
+		/*
+		 * Given
+		 */
+		final ListenableFuture<String> ready = this.subject.whenContains("ready");
+
+		/*
+		 * When
+		 */
+		this.subject.close();
+
+		/*
+		 * Then
+		 */
+		assertTrue(ready.isCancelled());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void givenStarted_whenRegister_expectIllegalState() throws Exception {
+		givenOutput("");
+		this.subject.start();
+		this.subject.whenContains("ready");
+	}
+
+	private void givenOutput(final String content) throws Exception {
+		when(this.mockConsole.output()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -10,12 +10,15 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -30,6 +33,8 @@ import org.junit.rules.DisableOnDebug;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
 import org.junit.runners.MethodSorters;
+import org.neverfear.jint.api.ConsoleMark;
+import org.neverfear.jint.api.ConsoleSubscription;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class FilePipedConsoleTest {
@@ -307,4 +312,162 @@ public class FilePipedConsoleTest {
 		assertEquals("ABC", reader.readLine());
 	}
 
+
+	@Test
+	public void givenLinesOnStdOut_andEndOfFile_whenLines_expectRandomAccessToLines() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stdoutWriter.println("A");
+		this.stdoutWriter.println("B");
+		this.stdoutWriter.println("C");
+		this.stdoutWriter.print("D");
+		this.stdoutWriter.close();
+		drain(this.subject.output());
+
+		/*
+		 * When
+		 */
+		try (CapturedLines lines = this.subject.outputLines()) {
+
+			/*
+			 * Then
+			 */
+			assertEquals(4, lines.count());
+			assertEquals("B", lines.line(1));
+			assertEquals(Arrays.asList("C", "D"), lines.last(2));
+			assertEquals(Arrays.asList("B", "C", "D"), lines.since(1));
+			assertEquals(Arrays.asList("C", "D"), lines.since(3));
+		}
+	}
+
+	@Test
+	public void givenUnterminatedLineOnStdOut_whenLines_expectOnlyTerminatedLines() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stdoutWriter.println("A");
+		this.stdoutWriter.print("B");
+		this.stdoutWriter.flush();
+
+		/*
+		 * When
+		 */
+		try (CapturedLines lines = this.subject.outputLines()) {
+			while (lines.count() == 0) {
+				// The copy has not yet reached the new line
+				Thread.sleep(1);
+			}
+
+			/*
+			 * Then
+			 */
+			assertEquals(1, lines.count());
+			assertEquals(Arrays.asList("A"), lines.since(0));
+			assertEquals(2, lines.end());
+		}
+	}
+
+	private static void drain(final InputStream input) throws IOException {
+		try (InputStream closing = input) {
+			while (closing.read() != -1) {
+				// Wait for the end of file
+			}
+		}
+	}
+
+	@Test
+	public void givenContentOnStdOut_andMark_whenOutputAtMark_expectOnlyContentAfterMark() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stdoutWriter.println("ABC");
+		this.stdoutWriter.flush();
+		ConsoleMark mark = this.subject.mark();
+		while (mark.outputPosition() < 4) {
+			// The copy has not yet caught up
+			Thread.sleep(1);
+			mark = this.subject.mark();
+		}
+		this.stdoutWriter.println("DEF");
+		this.stdoutWriter.flush();
+
+		/*
+		 * When
+		 */
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(this.subject.output(mark)));
+
+		/*
+		 * Then
+		 */
+		assertEquals(new ConsoleMark(4,
+				0), mark);
+		assertEquals("DEF", reader.readLine());
+	}
+
+	@Test
+	public void givenContentOnStdOut_whenSubscribeOutput_expectHistoryThenNewContentThenEndOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stdoutWriter.println("A");
+		this.stdoutWriter.flush();
+		final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+		/*
+		 * When
+		 */
+		this.subject.subscribeOutput(new LineListener() {
+
+			@Override
+			protected void onLine(final String line) {
+				lines.add(line);
+			}
+
+			@Override
+			protected void onEnd() {
+				lines.add("<EOF>");
+			}
+		});
+		this.stdoutWriter.println("B");
+		this.stdoutWriter.close();
+
+		/*
+		 * Then
+		 */
+		assertEquals("A", lines.take());
+		assertEquals("B", lines.take());
+		assertEquals("<EOF>", lines.take());
+	}
+
+	@Test
+	public void givenSubscribed_whenCloseSubscription_expectNoMoreContent() throws Exception {
+		/*
+		 * Given
+		 */
+		final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		final ConsoleSubscription subscription = this.subject.subscribeOutput(new LineListener() {
+
+			@Override
+			protected void onLine(final String line) {
+				lines.add(line);
+			}
+		});
+		this.stdoutWriter.println("A");
+		this.stdoutWriter.flush();
+		assertEquals("A", lines.take());
+
+		/*
+		 * When
+		 */
+		subscription.close();
+		this.stdoutWriter.println("B");
+		this.stdoutWriter.close();
+		drain(this.subject.output());
+
+		/*
+		 * Then
+		 */
+		assertEquals(null, lines.poll());
+	}
 }
@@ -0,0 +1,139 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class IoCopyToFileMultiplexerTaskTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	private static final int BATCH_SIZE = 0x10000;
+	private static final long NEVER = Long.MAX_VALUE / 1000000;
+
+	private File file;
+	private CountingOutputStream output;
+
+	@Before
+	public void before() throws Exception {
+		this.file = File.createTempFile(IoCopyToFileMultiplexerTaskTest.class.getSimpleName(),
+				".log");
+		this.file.deleteOnExit();
+		this.output = new CountingOutputStream(new FileOutputStream(this.file));
+	}
+
+	@After
+	public void after() throws Exception {
+		this.file.delete();
+	}
+
+	@Test
+	public void givenInputAlwaysAvailable_whenRun_expectWritesCoalescedIntoBatches() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] expected = new byte[BATCH_SIZE * 3 + 1];
+		Arrays.fill(expected, (byte) 'x');
+		final IoCopyToFileMultiplexerTask subject = new IoCopyToFileMultiplexerTask(new ChunkedInputStream(expected),
+				this.file,
+				this.output,
+				BATCH_SIZE,
+				NEVER);
+
+		/*
+		 * When
+		 */
+		subject.run();
+
+		/*
+		 * Then
+		 */
+		assertEquals(4, this.output.writes);
+		assertEquals(expected.length, subject.length());
+		assertEquals(expected.length, this.file.length());
+	}
+
+	@Test
+	public void givenInputWouldBlock_whenRead_expectReadersSeeWhatHasArrived() throws Exception {
+		/*
+		 * Given
+		 */
+		final PipedOutputStream feeder = new PipedOutputStream();
+		final IoCopyToFileMultiplexerTask subject = new IoCopyToFileMultiplexerTask(new PipedInputStream(feeder),
+				this.file,
+				this.output,
+				BATCH_SIZE,
+				NEVER);
+		final Thread thread = new Thread(subject);
+		thread.start();
+
+		/*
+		 * When
+		 */
+		feeder.write('A');
+		feeder.flush();
+
+		/*
+		 * Then
+		 */
+		try (InputStream reader = subject.connect()) {
+			assertEquals('A', reader.read());
+		}
+		feeder.close();
+		thread.join();
+	}
+
+	/**
+	 * Returns at most 4 KiB per read, like a pipe, while always having more
+	 * available.
+	 */
+	private static final class ChunkedInputStream
+		extends ByteArrayInputStream {
+
+		ChunkedInputStream(final byte[] content) {
+			super(content);
+		}
+
+		@Override
+		public synchronized int read(final byte[] buffer, final int offset, final int length) {
+			return super.read(buffer, offset, Math.min(length, 0x1000));
+		}
+	}
+
+	private static final class CountingOutputStream
+		extends FilterOutputStream {
+
+		private int writes = 0;
+
+		CountingOutputStream(final OutputStream output) {
+			super(output);
+		}
+
+		@Override
+		public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+			this.writes++;
+			this.out.write(buffer, offset, length);
+		}
+	}
+}
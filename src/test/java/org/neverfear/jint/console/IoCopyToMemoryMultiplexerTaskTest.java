@@ -0,0 +1,120 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+public class IoCopyToMemoryMultiplexerTaskTest {
+
+	private static final int CAPACITY = IoCopyToMemoryMultiplexerTask.SEGMENT_SIZE;
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private byte[] content;
+	private IoCopyToMemoryMultiplexerTask subject;
+
+	@Before
+	public void before() throws Exception {
+		this.content = new byte[CAPACITY * 4 + 123];
+		for (int index = 0; index < this.content.length; index++) {
+			this.content[index] = (byte) index;
+		}
+		this.subject = new IoCopyToMemoryMultiplexerTask(new ByteArrayInputStream(this.content),
+				"stdout",
+				CAPACITY);
+	}
+
+	@Test
+	public void givenSpilledAndCopied_whenRelease_expectSpillFileDeleted() throws Exception {
+		/*
+		 * Given
+		 */
+		this.subject.run();
+		final File spillFile = this.subject.spillFile();
+		assertNotNull(spillFile);
+		assertTrue(spillFile.exists());
+
+		/*
+		 * When
+		 */
+		this.subject.release();
+
+		/*
+		 * Then
+		 */
+		assertNull(this.subject.spillFile());
+		assertFalse(spillFile.exists());
+	}
+
+	@Test
+	public void givenSpilledAndReaderOpen_whenRelease_expectSpillFileKeptUntilReaderClosed() throws Exception {
+		/*
+		 * Given
+		 */
+		this.subject.run();
+		final File spillFile = this.subject.spillFile();
+		final InputStream reader = this.subject.connect();
+
+		/*
+		 * When
+		 */
+		this.subject.release();
+
+		/*
+		 * Then
+		 */
+		assertTrue(spillFile.exists());
+		assertArrayEquals(this.content, readFully(reader));
+
+		reader.close();
+		assertFalse(spillFile.exists());
+	}
+
+	@Test
+	public void givenSpilledAndReleased_whenReadFromStart_expectIOException() throws Exception {
+		/*
+		 * Given
+		 */
+		this.subject.run();
+		this.subject.release();
+
+		this.expectedException.expect(IOException.class);
+
+		/*
+		 * When
+		 */
+		try (InputStream reader = this.subject.connect()) {
+			reader.read();
+		}
+	}
+
+	private static byte[] readFully(final InputStream input) throws IOException {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1000];
+		int count;
+		while ((count = input.read(buffer)) != PersistentInputStream.EOF) {
+			output.write(buffer, 0, count);
+		}
+		return output.toByteArray();
+	}
+}
@@ -0,0 +1,93 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LineIndexTest {
+
+	private final LineIndex subject = new LineIndex();
+
+	@Test
+	public void givenNothingAppended_expectNoTerminatedLines() {
+		assertEquals(0, this.subject.terminatedLineCount());
+		assertEquals(0, this.subject.start(0));
+		assertEquals(0, this.subject.length());
+	}
+
+	@Test
+	public void givenLinesSplitAcrossAppends_expectStartOfEachLine() {
+		/*
+		 * When
+		 */
+		append("AB\nC");
+		append("D\n\nE");
+
+		/*
+		 * Then
+		 */
+		assertEquals(3, this.subject.terminatedLineCount());
+		assertEquals(0, this.subject.start(0));
+		assertEquals(3, this.subject.start(1));
+		assertEquals(6, this.subject.start(2));
+		assertEquals(7, this.subject.start(3));
+		assertEquals(8, this.subject.length());
+	}
+
+	@Test
+	public void givenManyLines_expectIndexGrows() {
+		/*
+		 * Given
+		 */
+		final int lines = 5000;
+
+		/*
+		 * When
+		 */
+		for (int line = 0; line < lines; line++) {
+			append("0123\n");
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(lines, this.subject.terminatedLineCount());
+		assertEquals(5 * (lines - 1), this.subject.start(lines - 1));
+	}
+
+	@Test
+	public void givenLines_whenLineAt_expectLineContainingPosition() {
+		/*
+		 * Given
+		 */
+		append("AB\nCD\nEF");
+
+		/*
+		 * Then
+		 */
+		assertEquals(0, this.subject.lineAt(0));
+		assertEquals(0, this.subject.lineAt(2));
+		assertEquals(1, this.subject.lineAt(3));
+		assertEquals(1, this.subject.lineAt(5));
+		assertEquals(2, this.subject.lineAt(6));
+		assertEquals(2, this.subject.lineAt(100));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void givenOneLine_whenStartOfMissingLine_expectIndexOutOfBounds() {
+		append("AB\n");
+		this.subject.start(2);
+	}
+
+	private void append(final String content) {
+		final byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+		this.subject.append(bytes,
+			0,
+			bytes.length);
+	}
+}
@@ -0,0 +1,90 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LineListenerTest {
+
+	private final List<String> lines = new ArrayList<>();
+	private boolean ended = false;
+
+	private final LineListener subject = new LineListener() {
+
+		@Override
+		protected void onLine(final String line) {
+			LineListenerTest.this.lines.add(line);
+		}
+
+		@Override
+		protected void onEnd() {
+			LineListenerTest.this.ended = true;
+		}
+	};
+
+	@Test
+	public void givenLinesSplitAcrossChunks_whenOnData_expectWholeLines() {
+		/*
+		 * When
+		 */
+		onData("AB");
+		onData("C\r\nDE\n\nF");
+
+		/*
+		 * Then
+		 */
+		assertEquals(Arrays.asList("ABC", "DE", ""), this.lines);
+	}
+
+	@Test
+	public void givenUnterminatedLine_whenOnEndOfFile_expectLastLineThenEnd() {
+		/*
+		 * Given
+		 */
+		onData("A\nB");
+
+		/*
+		 * When
+		 */
+		this.subject.onEndOfFile();
+
+		/*
+		 * Then
+		 */
+		assertEquals(Arrays.asList("A", "B"), this.lines);
+		assertTrue(this.ended);
+	}
+
+	@Test
+	public void givenLineLongerThanBuffer_whenOnData_expectWholeLine() {
+		/*
+		 * Given
+		 */
+		final StringBuilder expected = new StringBuilder();
+		for (int index = 0; index < 1000; index++) {
+			expected.append('x');
+			onData("x");
+		}
+
+		/*
+		 * When
+		 */
+		onData("\n");
+
+		/*
+		 * Then
+		 */
+		assertEquals(Arrays.asList(expected.toString()), this.lines);
+	}
+
+	private void onData(final String content) {
+		final byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+		this.subject.onData(bytes, 0, bytes.length);
+	}
+}
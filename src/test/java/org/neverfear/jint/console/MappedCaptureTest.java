@@ -0,0 +1,145 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MappedCaptureTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(1));
+
+	private File file;
+	private FileOutputStream writer;
+	private MappedCapture subject;
+
+	@Before
+	public void before() throws Exception {
+		this.file = File.createTempFile(MappedCaptureTest.class.getSimpleName(),
+				".log");
+		this.file.deleteOnExit();
+		this.writer = new FileOutputStream(this.file);
+		this.subject = new MappedCapture(this.file);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.subject.close();
+		this.writer.close();
+		this.file.delete();
+	}
+
+	@Test
+	public void givenEmptyFile_whenBuffers_expectNoBuffers() throws Exception {
+		assertEquals(0, this.subject.buffers().size());
+		assertEquals(0, this.subject.length());
+	}
+
+	@Test
+	public void givenFileGrows_whenBuffers_expectMappingGrows() throws Exception {
+		/*
+		 * Given
+		 */
+		write("ABC");
+		assertEquals("ABC", toString(this.subject.buffers()));
+
+		/*
+		 * When
+		 */
+		write("DEF");
+		final List<ByteBuffer> actual = this.subject.buffers();
+
+		/*
+		 * Then
+		 */
+		assertEquals("ABCDEF", toString(actual));
+		assertEquals(6, this.subject.length());
+	}
+
+	@Test
+	public void givenFileGrows_whenSlice_expectRangeOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		write("ABC");
+		this.subject.refresh();
+		write("DEF");
+
+		/*
+		 * When
+		 */
+		final ByteBuffer actual = this.subject.slice(2,
+			3);
+
+		/*
+		 * Then
+		 */
+		assertEquals("CDE", toString(actual));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void givenShortFile_whenSliceBeyondEnd_expectIndexOutOfBounds() throws Exception {
+		write("ABC");
+		this.subject.slice(2,
+			2);
+	}
+
+	@Test
+	public void givenFileLargerThanSegment_whenSliceAcrossSegments_expectRangeOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] filler = new byte[MappedCapture.SEGMENT_SIZE - 1];
+		this.writer.write(filler);
+		write("ABC");
+
+		/*
+		 * When
+		 */
+		final List<ByteBuffer> buffers = this.subject.buffers();
+		final ByteBuffer actual = this.subject.slice(MappedCapture.SEGMENT_SIZE - 1,
+			3);
+
+		/*
+		 * Then
+		 */
+		assertEquals(2, buffers.size());
+		assertEquals("BC", toString(buffers.get(1)));
+		assertEquals("ABC", toString(actual));
+	}
+
+	private void write(final String content) throws Exception {
+		this.writer.write(content.getBytes(StandardCharsets.US_ASCII));
+		this.writer.flush();
+	}
+
+	private static String toString(final List<ByteBuffer> buffers) {
+		final StringBuilder builder = new StringBuilder();
+		for (final ByteBuffer buffer : buffers) {
+			builder.append(toString(buffer));
+		}
+		return builder.toString();
+	}
+
+	private static String toString(final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return new String(bytes,
+				StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,197 @@
+package org.neverfear.jint.console;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.junit.runners.MethodSorters;
+import org.neverfear.jint.api.ConsoleMark;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MemoryConsoleTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	/**
+	 * The smallest capacity possible, so that anything beyond two segments is
+	 * spilled.
+	 */
+	private static final long CAPACITY = IoCopyToMemoryMultiplexerTask.SEGMENT_SIZE;
+
+	private OutputStream mockStdIn;
+
+	private PipedOutputStream stdoutFeeder;
+	private PrintWriter stdoutWriter;
+	private PrintWriter stderrWriter;
+
+	private MemoryConsole subject;
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception {
+		this.mockStdIn = mock(OutputStream.class, "stdin");
+		this.executor = Executors.newFixedThreadPool(2);
+
+		this.stdoutFeeder = new PipedOutputStream();
+		this.stdoutWriter = new PrintWriter(this.stdoutFeeder);
+		final PipedInputStream stdOut = new PipedInputStream(this.stdoutFeeder);
+
+		final PipedOutputStream stderrFeeder = new PipedOutputStream();
+		this.stderrWriter = new PrintWriter(stderrFeeder);
+		final PipedInputStream stdErr = new PipedInputStream(stderrFeeder);
+
+		this.subject = new MemoryConsole(
+				this.mockStdIn,
+				stdOut,
+				stdErr,
+				CAPACITY,
+				this.executor);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.subject.close();
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void whenInvokeClose_expectCloseStdIn() throws Exception {
+		/*
+		 * When
+		 */
+		this.subject.close();
+
+		/*
+		 * Then
+		 */
+		verify(this.mockStdIn, atLeastOnce()).close();
+	}
+
+	@Test
+	public void givenContentOnStdOut_whenInvokeNewOutputTwice_expectDifferentInstances_andBothReadSameData()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final char expected = 'A';
+		this.stdoutWriter.print(expected);
+		this.stdoutWriter.flush();
+
+		/*
+		 * When
+		 */
+		final InputStream output1 = this.subject.output();
+		final InputStream output2 = this.subject.output();
+
+		/*
+		 * Then
+		 */
+		assertNotEquals(output1, output2);
+		assertEquals(expected, (char) output1.read());
+		assertEquals(expected, (char) output2.read());
+	}
+
+	@Test
+	public void givenContentOnStdErr_andReaderOpen_whenStreamClosed_expectReadContentThenEndOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stderrWriter.println("ABC");
+		this.stderrWriter.flush();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(this.subject.error()));
+
+		/*
+		 * When
+		 */
+		this.stderrWriter.close();
+
+		/*
+		 * Then
+		 */
+		assertEquals("ABC", reader.readLine());
+		assertEquals(null, reader.readLine());
+	}
+
+	@Test
+	public void givenContentExceedingCapacity_whenReadFromStart_expectEntireHistory() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] expected = new byte[(int) CAPACITY * 4 + 123];
+		for (int index = 0; index < expected.length; index++) {
+			expected[index] = (byte) index;
+		}
+		this.stdoutFeeder.write(expected);
+		this.stdoutFeeder.close();
+
+		/*
+		 * When
+		 */
+		final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		try (InputStream output = this.subject.output()) {
+			final byte[] buffer = new byte[1000];
+			int count;
+			while ((count = output.read(buffer)) != PersistentInputStream.EOF) {
+				actual.write(buffer, 0, count);
+			}
+		}
+
+		/*
+		 * Then
+		 */
+		assertArrayEquals(expected, actual.toByteArray());
+	}
+
+	@Test
+	public void givenContentOnStdOut_andMark_whenOutputAtMark_expectOnlyContentAfterMark() throws Exception {
+		/*
+		 * Given
+		 */
+		this.stdoutWriter.println("ABC");
+		this.stdoutWriter.flush();
+		ConsoleMark mark = this.subject.mark();
+		while (mark.outputPosition() < 4) {
+			// The copy has not yet caught up
+			Thread.sleep(1);
+			mark = this.subject.mark();
+		}
+		this.stdoutWriter.println("DEF");
+		this.stdoutWriter.flush();
+
+		/*
+		 * When
+		 */
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(this.subject.output(mark)));
+
+		/*
+		 * Then
+		 */
+		assertEquals(new ConsoleMark(4,
+				0), mark);
+		assertEquals("DEF", reader.readLine());
+	}
+}
@@ -30,20 +30,21 @@ public class PersistentInputStreamIT {
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
 	private static final String DATA = "ABC";
+	private File file;
 	private PrintWriter writeEndPoint;
 	private PersistentInputStream subject;
 
 	@Before
 	public void before() throws Exception {
-		final File file = createTempFile(PersistentInputStreamIT.class.getCanonicalName(), "TESTFILE");
-		file.deleteOnExit();
+		this.file = createTempFile(PersistentInputStreamIT.class.getCanonicalName(), "TESTFILE");
+		this.file.deleteOnExit();
 
 		this.writeEndPoint = new PrintWriter(
 				new OutputStreamWriter(
-						new FileOutputStream(file)));
+						new FileOutputStream(this.file)));
 
 		this.subject = new PersistentInputStream(
-				new FileInputStream(file));
+				new FileInputStream(this.file));
 	}
 
 	@After
@@ -333,4 +334,71 @@ public class PersistentInputStreamIT {
 		}
 	}
 
+	@Test
+	public void givenSignalledEndOfFile_andAllDataRead_whenReadBuffer_expectEOF() throws Exception {
+		/*
+		 * Given
+		 */
+		final AppendSignal signal = new AppendSignal();
+		final PersistentInputStream signalled = new PersistentInputStream(new FileInputStream(this.file),
+				signal);
+		final byte[] buffer = new byte[1024];
+		this.writeEndPoint.print(DATA);
+		this.writeEndPoint.flush();
+		signal.appended(DATA.getBytes().length);
+		signal.endOfFile();
+		assertEquals(DATA.getBytes().length, signalled.read(buffer));
+
+		/*
+		 * When
+		 */
+		final int count = signalled.read(buffer);
+
+		/*
+		 * Then
+		 */
+		assertEquals(PersistentInputStream.EOF, count);
+	}
+
+	/*
+	 * Timeout is required because the read blocks until signalled.
+	 */
+	@Test(timeout = 2500)
+	public void givenSignalledStream_andNoData_whenDataAppendedLater_expectReadWokenWithData() throws Exception {
+		/*
+		 * Given
+		 */
+		final AppendSignal signal = new AppendSignal();
+		final PersistentInputStream signalled = new PersistentInputStream(new FileInputStream(this.file),
+				signal);
+		final byte[] buffer = new byte[1024];
+		final Thread writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (final InterruptedException e) {
+					return;
+				}
+				PersistentInputStreamIT.this.writeEndPoint.print(DATA);
+				PersistentInputStreamIT.this.writeEndPoint.flush();
+				signal.appended(DATA.getBytes().length);
+			}
+		});
+		writer.start();
+
+		/*
+		 * When
+		 */
+		final int count = signalled.read(buffer);
+
+		/*
+		 * Then
+		 */
+		assertEquals(DATA.getBytes().length, count);
+		assertArrayEquals(DATA.getBytes(), Arrays.copyOfRange(buffer, 0, count));
+		writer.join();
+	}
+
 }
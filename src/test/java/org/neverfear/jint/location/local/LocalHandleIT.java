@@ -0,0 +1,42 @@
+package org.neverfear.jint.location.local;
+
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Jint;
+import org.neverfear.jint.application.basic.BasicApplication;
+
+public class LocalHandleIT {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(30));
+
+	@Test
+	public void givenProcessExitsByItself_whenAwaitStop_expectNotRunning() throws Exception {
+		/*
+		 * Given
+		 */
+		final BasicApplication application = Jint.basic("true")
+				.build();
+
+		// The race with the reaper only shows some of the time
+		for (int i = 0; i < 100; i++) {
+			application.start();
+
+			/*
+			 * When
+			 */
+			application.awaitStop();
+
+			/*
+			 * Then
+			 */
+			assertFalse("Run " + i, application.isRunning());
+			application.stop();
+		}
+	}
+}
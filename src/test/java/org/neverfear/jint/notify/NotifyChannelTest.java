@@ -0,0 +1,177 @@
+package org.neverfear.jint.notify;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class NotifyChannelTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	private NotifyChannel subject;
+	private Notifier notifier;
+
+	@Before
+	public void before() throws Exception {
+		this.subject = NotifyChannel.open();
+		this.notifier = new Notifier(this.subject.address());
+	}
+
+	@After
+	public void after() throws Exception {
+		this.notifier.close();
+		this.subject.close();
+	}
+
+	@Test
+	public void givenNotifierReady_whenReady_expectCompleted() throws Exception {
+		/*
+		 * Given
+		 */
+		this.notifier.ready();
+
+		/*
+		 * When
+		 */
+		this.subject.ready()
+				.get(1,
+					SECONDS);
+	}
+
+	@Test
+	public void givenNotifierStatus_whenStatus_expectLastStatus() throws Exception {
+		/*
+		 * Given
+		 */
+		this.notifier.status("Loading");
+		this.notifier.status("Warming cache");
+		this.notifier.ready();
+		this.subject.ready()
+				.get(1,
+					SECONDS);
+
+		/*
+		 * When
+		 */
+		final String status = this.subject.status();
+
+		/*
+		 * Then
+		 */
+		assertEquals("Warming cache",
+			status);
+	}
+
+	@Test
+	public void givenReadyNotifierDisconnects_whenReady_expectNewFuture() throws Exception {
+		/*
+		 * Given
+		 */
+		this.notifier.ready();
+		final ListenableFuture<Void> first = this.subject.ready();
+		first.get(1,
+			SECONDS);
+
+		/*
+		 * When
+		 */
+		this.notifier.close();
+
+		/*
+		 * Then
+		 */
+		while (this.subject.ready() == first) {
+			Thread.sleep(10);
+		}
+		assertFalse(this.subject.ready()
+				.isDone());
+	}
+
+	@Test
+	public void givenReadyNotifierStopping_whenReady_expectNewFuture() throws Exception {
+		/*
+		 * Given
+		 */
+		this.notifier.ready();
+		final ListenableFuture<Void> first = this.subject.ready();
+		first.get(1,
+			SECONDS);
+
+		/*
+		 * When
+		 */
+		this.notifier.stopping();
+		this.notifier.status("stopped");
+
+		/*
+		 * Then
+		 */
+		while (!"stopped".equals(this.subject.status())) {
+			Thread.sleep(10);
+		}
+		assertNotSame(first,
+			this.subject.ready());
+		assertFalse(this.subject.ready()
+				.isDone());
+	}
+
+	@Test
+	public void givenReadyNotifierStillConnected_whenReadyAfterItsConnection_expectOnlyLaterConnectionCounts()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		this.notifier.ready();
+		final long first = this.subject.readyAfter(0)
+				.get(1,
+					SECONDS);
+
+		/*
+		 * When
+		 */
+		final ListenableFuture<Long> restarted = this.subject.readyAfter(first);
+
+		/*
+		 * Then
+		 */
+		assertFalse(restarted.isDone());
+
+		try (Notifier second = new Notifier(this.subject.address())) {
+			second.ready();
+			assertTrue(restarted.get(1,
+				SECONDS) > first);
+		}
+	}
+
+	@Test
+	public void givenNoAddress_whenNotify_expectDropped() throws Exception {
+		/*
+		 * Given
+		 */
+		final Notifier disabled = new Notifier(null);
+
+		/*
+		 * When
+		 */
+		disabled.ready();
+		disabled.close();
+
+		/*
+		 * Then
+		 */
+		assertFalse(disabled.isEnabled());
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 doug@neverfear.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neverfear.jint.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.neverfear.jint.api.Jint.basic;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Console;
+import org.neverfear.jint.api.ConsoleMode;
+import org.neverfear.jint.application.basic.BasicApplication;
+
+/**
+ * Demonstrates the different ways a console may be captured.
+ * 
+ * @author doug@neverfear.org
+ * 
+ */
+public class ConsoleModeSampleIT {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	private final BasicApplication redirectedCat = basic("cat")
+			.consoleMode(ConsoleMode.REDIRECTED)
+			.build();
+
+	private final BasicApplication memoryCat = basic("cat")
+			.consoleMode(ConsoleMode.MEMORY)
+			.build();
+
+	@Before
+	public void before() throws Exception {
+		this.redirectedCat.start();
+		this.redirectedCat.awaitStart();
+
+		this.memoryCat.start();
+		this.memoryCat.awaitStart();
+	}
+
+	@After
+	public void after() throws Exception {
+		this.memoryCat.stop();
+		this.memoryCat.awaitStop();
+
+		this.redirectedCat.stop();
+		this.redirectedCat.awaitStop();
+	}
+
+	@Test
+	public void givenRedirectedCat_whenWrite_expectReadSameData() throws Exception {
+		final Console console = this.redirectedCat.console();
+		final PrintWriter stdin = new PrintWriter(console.input(),
+				true);
+		final BufferedReader stdout = new BufferedReader(new InputStreamReader(console.output()));
+
+		stdin.println("ABC");
+		assertEquals("ABC", stdout.readLine());
+	}
+
+	@Test
+	public void givenRedirectedCatWithDataOnStdOut_whenExit_expectReadSameDataThenEndOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		final Console console = this.redirectedCat.console();
+		final PrintWriter stdin = new PrintWriter(console.input(),
+				true);
+		stdin.println("ABC");
+
+		/*
+		 * When
+		 */
+		stdin.close();
+		this.redirectedCat.awaitStop();
+
+		/*
+		 * Then
+		 */
+		final BufferedReader stdout = new BufferedReader(new InputStreamReader(console.output()));
+		assertEquals("ABC", stdout.readLine());
+		assertEquals(null, stdout.readLine());
+	}
+
+	@Test
+	public void givenMemoryCat_whenWrite_expectReadSameData() throws Exception {
+		final Console console = this.memoryCat.console();
+		final PrintWriter stdin = new PrintWriter(console.input(),
+				true);
+		final BufferedReader stdout = new BufferedReader(new InputStreamReader(console.output()));
+
+		stdin.println("ABC");
+		assertEquals("ABC", stdout.readLine());
+	}
+
+	@Test
+	public void givenMemoryCatWithDataOnStdOut_whenExit_expectReadSameDataThenEndOfFile() throws Exception {
+		/*
+		 * Given
+		 */
+		final Console console = this.memoryCat.console();
+		final PrintWriter stdin = new PrintWriter(console.input(),
+				true);
+		stdin.println("ABC");
+
+		/*
+		 * When
+		 */
+		stdin.close();
+		this.memoryCat.awaitStop();
+
+		/*
+		 * Then
+		 */
+		final BufferedReader stdout = new BufferedReader(new InputStreamReader(console.output()));
+		assertEquals("ABC", stdout.readLine());
+		assertEquals(null, stdout.readLine());
+	}
+}
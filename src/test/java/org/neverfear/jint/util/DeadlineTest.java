@@ -0,0 +1,112 @@
+package org.neverfear.jint.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+public class DeadlineTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Test
+	public void givenDeadlineInFuture_whenHasExpired_expectFalse() {
+		/*
+		 * Given
+		 */
+		final Deadline subject = Deadline.after(1,
+			SECONDS);
+
+		/*
+		 * When
+		 */
+		final boolean expired = subject.hasExpired();
+
+		/*
+		 * Then
+		 */
+		assertFalse(expired);
+		assertEquals(SECONDS.toNanos(1),
+			subject.timeoutNanos());
+	}
+
+	@Test
+	public void givenZeroTimeout_whenHasExpired_expectTrue() {
+		/*
+		 * Given
+		 */
+		final Deadline subject = Deadline.after(0,
+			SECONDS);
+
+		/*
+		 * When
+		 */
+		final boolean expired = subject.hasExpired();
+
+		/*
+		 * Then
+		 */
+		assertTrue(expired);
+	}
+
+	@Test
+	public void givenAlarm_whenCancelBeforeExpiry_expectNotFiredAndNotInterrupted() throws Exception {
+		/*
+		 * Given
+		 */
+		final Deadline.Alarm alarm = Deadline.after(1,
+			SECONDS)
+				.interruptAtExpiry();
+
+		/*
+		 * When
+		 */
+		final boolean fired = alarm.cancel();
+
+		/*
+		 * Then
+		 */
+		assertFalse(fired);
+		assertFalse(Thread.currentThread()
+				.isInterrupted());
+	}
+
+	@Test
+	public void givenAlarm_whenSleepPastExpiry_expectInterruptedAndCancelClearsInterrupt() throws Exception {
+		/*
+		 * Given
+		 */
+		final Deadline.Alarm alarm = Deadline.after(10,
+			MILLISECONDS)
+				.interruptAtExpiry();
+
+		/*
+		 * When
+		 */
+		try {
+			Thread.sleep(SECONDS.toMillis(10));
+			fail("Expected to be interrupted");
+		} catch (final InterruptedException e) {
+			// expected
+		}
+		Thread.currentThread()
+				.interrupt();
+		final boolean fired = alarm.cancel();
+
+		/*
+		 * Then
+		 */
+		assertTrue(fired);
+		assertFalse(Thread.currentThread()
+				.isInterrupted());
+	}
+}
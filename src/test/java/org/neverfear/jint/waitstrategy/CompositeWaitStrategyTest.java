@@ -0,0 +1,204 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.api.WaitStrategy;
+import org.neverfear.jint.util.JintExecutors;
+
+public class CompositeWaitStrategyTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private Application mockApplication;
+	private CountDownLatch started;
+	private CountDownLatch release;
+	private CountDownLatch interrupted;
+
+	@Before
+	public void before() throws Exception {
+		this.mockApplication = mock(Application.class);
+		this.started = new CountDownLatch(1);
+		this.release = new CountDownLatch(1);
+		this.interrupted = new CountDownLatch(1);
+	}
+
+	@Test
+	public void givenAllComplete_whenAllOf_expectEachStrategyWaitedFor() throws Exception {
+		/*
+		 * Given
+		 */
+		final WaitStrategy first = mock(WaitStrategy.class);
+		final WaitStrategy second = mock(WaitStrategy.class);
+		final CompositeWaitStrategy subject = new CompositeWaitStrategy(asList(first,
+			second),
+				CompositeWaitStrategy.Mode.ALL,
+				JintExecutors.io());
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication);
+
+		/*
+		 * Then
+		 */
+		verify(first).waitFor(this.mockApplication);
+		verify(second).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenOneNeverCompletes_whenAnyOf_expectCompletesAndOtherInterrupted() throws Exception {
+		/*
+		 * Given
+		 */
+		final CompositeWaitStrategy subject = new CompositeWaitStrategy(asList(new BlockingStrategy(),
+			new AfterStartedStrategy(null)),
+				CompositeWaitStrategy.Mode.ANY,
+				JintExecutors.io());
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication);
+
+		/*
+		 * Then
+		 */
+		assertTrue(this.interrupted.await(1,
+			SECONDS));
+	}
+
+	@Test
+	public void givenOneFails_whenAllOf_expectSameExceptionWithoutWaitingForOthers() throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationException expected = new ApplicationException("broken");
+		final CompositeWaitStrategy subject = new CompositeWaitStrategy(asList(new BlockingStrategy(),
+			new AfterStartedStrategy(expected)),
+				CompositeWaitStrategy.Mode.ALL,
+				JintExecutors.io());
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(sameInstance(expected));
+
+		/*
+		 * When
+		 */
+		try {
+			subject.waitFor(this.mockApplication);
+		} finally {
+			assertTrue(this.interrupted.await(1,
+				SECONDS));
+		}
+	}
+
+	@Test
+	public void givenOneNeverCompletes_whenAllOfWithTimeout_expectApplicationTimeoutException() throws Exception {
+		/*
+		 * Given
+		 */
+		final CompositeWaitStrategy subject = new CompositeWaitStrategy(asList(new BlockingStrategy(),
+			mock(WaitStrategy.class)),
+				CompositeWaitStrategy.Mode.ALL,
+				JintExecutors.io());
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationTimeoutException.class);
+		this.expectedException.expectMessage("BlockingStrategy");
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication,
+			50,
+			MILLISECONDS);
+	}
+
+	/**
+	 * Blocks until released, counting down {@link #interrupted} if it is
+	 * interrupted instead. Counts down {@link #started} so others can wait for
+	 * it to be running, since a wait cancelled before it starts is never
+	 * interrupted.
+	 */
+	private final class BlockingStrategy
+		implements WaitStrategy {
+
+		@Override
+		public void waitFor(final Application application) throws InterruptedException {
+			CompositeWaitStrategyTest.this.started.countDown();
+			try {
+				CompositeWaitStrategyTest.this.release.await();
+			} catch (final InterruptedException e) {
+				CompositeWaitStrategyTest.this.interrupted.countDown();
+				throw e;
+			}
+		}
+
+		@Override
+		public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+				throws InterruptedException {
+			waitFor(application);
+		}
+
+		@Override
+		public String toString() {
+			return "BlockingStrategy";
+		}
+	}
+
+	/**
+	 * Once {@link BlockingStrategy} is running, completes or fails with the
+	 * exception if given.
+	 */
+	private final class AfterStartedStrategy
+		implements WaitStrategy {
+
+		private final ApplicationException exception;
+
+		AfterStartedStrategy(final ApplicationException exception) {
+			this.exception = exception;
+		}
+
+		@Override
+		public void waitFor(final Application application) throws InterruptedException, ApplicationException {
+			CompositeWaitStrategyTest.this.started.await();
+			if (this.exception != null) {
+				throw this.exception;
+			}
+		}
+
+		@Override
+		public void waitFor(final Application application, final long timeout, final TimeUnit unit)
+				throws InterruptedException, ApplicationException {
+			waitFor(application);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package org.neverfear.jint.waitstrategy;
 
 import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -8,6 +10,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.PrintWriter;
 import java.util.regex.Pattern;
 
@@ -18,17 +22,22 @@ import org.junit.rules.ExpectedException;
 import org.mockito.ArgumentMatcher;
 import org.neverfear.jint.api.Application;
 import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
 import org.neverfear.jint.api.Console;
 
+import com.google.common.util.concurrent.SettableFuture;
+
 public class ConsoleWaitStrategyTest {
 
 	private static final String UNRELATED_LINE_1 = "Ignore me";
 	private static final String SEARCH_FOR_LINE = "Where is wally?";
 	private static final String UNRELATED_LINE_2 = "I'm never read";
 	private static final Pattern PATTERN = Pattern.compile(".*wally.*");
+	private static final Pattern LITERAL = Pattern.compile("is wally");
 
 	private ConsoleWaitStrategy subject;
 	private Application mockApplication;
+	private SettableFuture<Integer> termination;
 	private Console mockConsole;
 
 	@Rule
@@ -38,6 +47,8 @@ public class ConsoleWaitStrategyTest {
 	public void before() throws Exception {
 		this.mockConsole = mock(Console.class);
 		this.mockApplication = mock(Application.class);
+		this.termination = SettableFuture.create();
+		when(this.mockApplication.termination()).thenReturn(this.termination);
 		when(this.mockApplication.console()).thenReturn(this.mockConsole);
 		when(this.mockApplication.isRunning()).thenReturn(true);
 
@@ -161,6 +172,129 @@ public class ConsoleWaitStrategyTest {
 		this.subject.waitFor(this.mockApplication);
 	}
 
+	@Test
+	public void givenLiteralMatchesSecondLine_whenInvokeWaitFor_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] data = createData(UNRELATED_LINE_1,
+			SEARCH_FOR_LINE,
+			UNRELATED_LINE_2);
+		when(this.mockConsole.output()).thenReturn(new ByteArrayInputStream(data));
+
+		/*
+		 * When
+		 */
+		new ConsoleWaitStrategy(LITERAL).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenLiteralDoesNotMatch_whenInvokeWaitFor_expectApplicationException() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] data = createData(
+			UNRELATED_LINE_1,
+			UNRELATED_LINE_2);
+		when(this.mockConsole.output()).thenReturn(new ByteArrayInputStream(data));
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+
+		/*
+		 * When
+		 */
+		new ConsoleWaitStrategy(LITERAL).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenLiteral_andApplicationExited_whenInvokeWaitFor_expectApplicationException() throws Exception {
+		/*
+		 * Given
+		 */
+		final byte[] data = createData(SEARCH_FOR_LINE);
+		when(this.mockConsole.output()).thenReturn(new ByteArrayInputStream(data));
+		when(this.mockApplication.isRunning()).thenReturn(false);
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("exited");
+
+		/*
+		 * When
+		 */
+		new ConsoleWaitStrategy(LITERAL).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenNoOutput_whenInvokeWaitForWithTimeout_expectApplicationTimeoutException() throws Exception {
+		/*
+		 * Given
+		 */
+		final PipedOutputStream writer = new PipedOutputStream();
+		when(this.mockConsole.output()).thenReturn(new PipedInputStream(writer));
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationTimeoutException.class);
+
+		/*
+		 * When
+		 */
+		try {
+			this.subject.waitFor(this.mockApplication,
+				50,
+				MILLISECONDS);
+		} finally {
+			assertFalse(currentThread().isInterrupted());
+			writer.close();
+		}
+	}
+
+	@Test
+	public void givenNoOutput_andApplicationTerminatesWhileWaiting_whenInvokeWaitFor_expectApplicationException()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		final PipedOutputStream writer = new PipedOutputStream();
+		when(this.mockConsole.output()).thenReturn(new PipedInputStream(writer));
+		final Thread terminator = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (final InterruptedException e) {
+					return;
+				}
+				ConsoleWaitStrategyTest.this.termination.set(3);
+			}
+		};
+		terminator.start();
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 3");
+
+		/*
+		 * When
+		 */
+		try {
+			this.subject.waitFor(this.mockApplication);
+		} finally {
+			assertFalse(currentThread().isInterrupted());
+			writer.close();
+		}
+	}
+
 	private static byte[] createData(final String... lines) {
 		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 		final PrintWriter writer = new PrintWriter(new OutputStreamWriter(buffer));
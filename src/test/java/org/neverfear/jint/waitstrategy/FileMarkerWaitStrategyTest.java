@@ -0,0 +1,178 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.SettableFuture;
+
+public class FileMarkerWaitStrategyTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(10));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Application mockApplication;
+	private SettableFuture<Integer> termination;
+	private Path marker;
+
+	@Before
+	public void before() throws Exception {
+		this.mockApplication = mock(Application.class);
+		this.termination = SettableFuture.create();
+		when(this.mockApplication.termination()).thenReturn(this.termination);
+
+		this.marker = this.folder.getRoot()
+				.toPath()
+				.resolve("app.ready");
+	}
+
+	@Test
+	public void givenMarkerExists_whenInvokeWaitFor_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		Files.createFile(this.marker);
+
+		/*
+		 * When
+		 */
+		new FileMarkerWaitStrategy(this.marker).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenMarkerWrittenLater_whenInvokeWaitFor_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		later(new Action() {
+
+			@Override
+			public void run() throws Exception {
+				Files.createFile(FileMarkerWaitStrategyTest.this.folder.getRoot()
+						.toPath()
+						.resolve("unrelated"));
+				Files.createFile(FileMarkerWaitStrategyTest.this.marker);
+			}
+		});
+
+		/*
+		 * When
+		 */
+		new FileMarkerWaitStrategy(this.marker).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenMarkerCompletedLater_whenInvokeWaitForWithPredicate_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		Files.createFile(this.marker);
+		later(new Action() {
+
+			@Override
+			public void run() throws Exception {
+				Files.write(FileMarkerWaitStrategyTest.this.marker,
+					"1234\n".getBytes(Charsets.UTF_8));
+			}
+		});
+
+		/*
+		 * When
+		 */
+		new FileMarkerWaitStrategy(this.marker,
+				new Predicate<Path>() {
+
+					@Override
+					public boolean apply(final Path input) {
+						return input.toFile()
+								.length() > 0;
+					}
+				}).waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenMarkerNeverWritten_whenInvokeWaitForWithTimeout_expectApplicationTimeoutException()
+			throws Exception {
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationTimeoutException.class);
+		this.expectedException.expectMessage("app.ready");
+
+		/*
+		 * When
+		 */
+		new FileMarkerWaitStrategy(this.marker).waitFor(this.mockApplication,
+			100,
+			MILLISECONDS);
+	}
+
+	@Test
+	public void givenApplicationTerminatesWhileWaiting_whenInvokeWaitFor_expectApplicationException()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		later(new Action() {
+
+			@Override
+			public void run() throws Exception {
+				FileMarkerWaitStrategyTest.this.termination.set(3);
+			}
+		});
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 3");
+
+		/*
+		 * When
+		 */
+		new FileMarkerWaitStrategy(this.marker).waitFor(this.mockApplication);
+	}
+
+	private interface Action {
+
+		void run() throws Exception;
+	}
+
+	private static void later(final Action action) {
+		new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+					action.run();
+				} catch (final Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}.start();
+	}
+}
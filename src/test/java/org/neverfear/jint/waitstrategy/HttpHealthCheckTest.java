@@ -0,0 +1,184 @@
+package org.neverfear.jint.waitstrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicates;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpHealthCheckTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(10));
+
+	private HttpServer server;
+	private Set<Integer> clientPorts;
+	private volatile int status;
+	private volatile String body;
+	private Application mockApplication;
+
+	@Before
+	public void before() throws Exception {
+		this.status = 200;
+		this.body = "UP";
+		this.clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				0),
+			0);
+		this.server.createContext("/health",
+			new HttpHandler() {
+
+				@Override
+				public void handle(final HttpExchange exchange) throws IOException {
+					HttpHealthCheckTest.this.clientPorts.add(exchange.getRemoteAddress()
+							.getPort());
+					final byte[] response = HttpHealthCheckTest.this.body.getBytes(Charsets.UTF_8);
+					exchange.sendResponseHeaders(HttpHealthCheckTest.this.status,
+						response.length);
+					try (OutputStream output = exchange.getResponseBody()) {
+						output.write(response);
+					}
+				}
+			});
+		this.server.start();
+
+		this.mockApplication = mock(Application.class);
+	}
+
+	@After
+	public void after() {
+		this.server.stop(0);
+	}
+
+	@Test
+	public void givenOk_whenIsHealthy_expectTrue() throws Exception {
+		/*
+		 * Given
+		 */
+		final HttpHealthCheck subject = new HttpHealthCheck(healthUrl());
+
+		/*
+		 * When
+		 */
+		final boolean healthy = subject.isHealthy(this.mockApplication);
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertTrue(healthy);
+	}
+
+	@Test
+	public void givenServiceUnavailable_whenIsHealthy_expectFalse() throws Exception {
+		/*
+		 * Given
+		 */
+		this.status = 503;
+		final HttpHealthCheck subject = new HttpHealthCheck(healthUrl());
+
+		/*
+		 * When
+		 */
+		final boolean healthy = subject.isHealthy(this.mockApplication);
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertFalse(healthy);
+	}
+
+	@Test
+	public void givenBodyDoesNotMatch_whenIsHealthy_expectFalse() throws Exception {
+		/*
+		 * Given
+		 */
+		this.body = "STARTING";
+		final HttpHealthCheck subject = new HttpHealthCheck(healthUrl(),
+				200,
+				Predicates.equalTo("UP"));
+
+		/*
+		 * When
+		 */
+		final boolean healthy = subject.isHealthy(this.mockApplication);
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertFalse(healthy);
+	}
+
+	@Test
+	public void givenNotListening_whenIsHealthy_expectFalse() throws Exception {
+		/*
+		 * Given
+		 */
+		final HttpHealthCheck subject = new HttpHealthCheck(new URL("http://localhost:"
+				+ TcpConnectProbeTest.closedPort() + "/health"));
+
+		/*
+		 * When
+		 */
+		final boolean healthy = subject.isHealthy(this.mockApplication);
+
+		/*
+		 * Then
+		 */
+		assertFalse(healthy);
+	}
+
+	@Test
+	public void givenManyAttempts_whenIsHealthy_expectOneConnection() throws Exception {
+		/*
+		 * Given
+		 */
+		this.status = 503;
+		final HttpHealthCheck subject = new HttpHealthCheck(healthUrl());
+
+		/*
+		 * When
+		 */
+		for (int i = 0; i < 5; i++) {
+			assertFalse(subject.isHealthy(this.mockApplication));
+		}
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertEquals(1,
+			this.clientPorts.size());
+	}
+
+	private URL healthUrl() throws Exception {
+		return new URL("http://127.0.0.1:" + this.server.getAddress()
+				.getPort() + "/health");
+	}
+}
@@ -0,0 +1,144 @@
+package org.neverfear.jint.waitstrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectionNotification;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+
+public class JmxBeanRegistrationHealthCheckTest {
+
+	private static final String MISSING_BEAN = "org.neverfear.jint:type=Missing";
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(10));
+
+	private JMXConnectorServer server;
+	private List<String> notifications;
+	private Application mockApplication;
+
+	@Before
+	public void before() throws Exception {
+		final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		this.server = JMXConnectorServerFactory.newJMXConnectorServer(new JMXServiceURL("service:jmx:rmi://localhost"),
+			null,
+			mbeanServer);
+		this.notifications = new CopyOnWriteArrayList<>();
+		this.server.addNotificationListener(new NotificationListener() {
+
+			@Override
+			public void handleNotification(final Notification notification, final Object handback) {
+				JmxBeanRegistrationHealthCheckTest.this.notifications.add(notification.getType());
+			}
+		},
+			null,
+			null);
+		this.server.start();
+
+		this.mockApplication = mock(Application.class);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.server.stop();
+	}
+
+	@Test
+	public void givenBeanNotRegistered_whenIsHealthyManyTimes_expectOneConnection() throws Exception {
+		/*
+		 * Given
+		 */
+		final JmxBeanRegistrationHealthCheck subject = new JmxBeanRegistrationHealthCheck(new ObjectName(MISSING_BEAN),
+				this.server.getAddress()
+						.toString());
+
+		/*
+		 * When
+		 */
+		for (int i = 0; i < 3; i++) {
+			assertFalse(subject.isHealthy(this.mockApplication));
+		}
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertEquals(1,
+			count(JMXConnectionNotification.OPENED));
+	}
+
+	@Test
+	public void givenBeanRegistered_whenIsHealthy_expectTrue() throws Exception {
+		/*
+		 * Given
+		 */
+		final JmxBeanRegistrationHealthCheck subject = new JmxBeanRegistrationHealthCheck(new ObjectName(ManagementFactory.RUNTIME_MXBEAN_NAME),
+				this.server.getAddress()
+						.toString());
+
+		/*
+		 * When
+		 */
+		final boolean healthy = subject.isHealthy(this.mockApplication);
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		assertTrue(healthy);
+	}
+
+	@Test
+	public void givenConnected_whenClose_expectConnectionClosed() throws Exception {
+		/*
+		 * Given
+		 */
+		final JmxBeanRegistrationHealthCheck subject = new JmxBeanRegistrationHealthCheck(new ObjectName(MISSING_BEAN),
+				this.server.getAddress()
+						.toString());
+		subject.isHealthy(this.mockApplication);
+
+		/*
+		 * When
+		 */
+		subject.close();
+
+		/*
+		 * Then
+		 */
+		while (count(JMXConnectionNotification.CLOSED) == 0) {
+			Thread.sleep(10);
+		}
+	}
+
+	private int count(final String type) {
+		int count = 0;
+		for (final String notification : this.notifications) {
+			if (type.equals(notification)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
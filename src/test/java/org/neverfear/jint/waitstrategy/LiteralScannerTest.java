@@ -0,0 +1,86 @@
+package org.neverfear.jint.waitstrategy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class LiteralScannerTest {
+
+	@Test
+	public void givenLiteralSplitAcrossBuffers_whenFind_expectFound() {
+		/*
+		 * Given
+		 */
+		final LiteralScanner subject = new LiteralScanner(bytes("ready"));
+
+		/*
+		 * When
+		 */
+		final boolean first = find(subject, "INFO: rea");
+		final boolean second = find(subject, "dy\n");
+
+		/*
+		 * Then
+		 */
+		assertFalse(first);
+		assertTrue(second);
+	}
+
+	@Test
+	public void givenPartialMatchThenRestart_whenFind_expectFound() {
+		final LiteralScanner subject = new LiteralScanner(bytes("aab"));
+		assertTrue(find(subject, "aaab"));
+	}
+
+	@Test
+	public void givenLiteralSplitAcrossLines_whenFind_expectNotFound() {
+		final LiteralScanner subject = new LiteralScanner(bytes("ready"));
+		assertFalse(find(subject, "rea\ndy\n"));
+	}
+
+	@Test
+	public void givenPlainText_whenLiteralBytes_expectBytes() {
+		assertArrayEquals(bytes("Server started"), LiteralScanner.literalBytes(Pattern.compile("Server started")));
+	}
+
+	@Test
+	public void givenQuotedText_whenLiteralBytes_expectBytes() {
+		assertArrayEquals(bytes("port 8080 (ready)"),
+			LiteralScanner.literalBytes(Pattern.compile(Pattern.quote("port 8080 (ready)"))));
+	}
+
+	@Test
+	public void givenLiteralFlag_whenLiteralBytes_expectBytes() {
+		assertArrayEquals(bytes(".*"), LiteralScanner.literalBytes(Pattern.compile(".*", Pattern.LITERAL)));
+	}
+
+	@Test
+	public void givenRegex_whenLiteralBytes_expectNull() {
+		assertNull(LiteralScanner.literalBytes(Pattern.compile(".*wally.*")));
+	}
+
+	@Test
+	public void givenCaseInsensitive_whenLiteralBytes_expectNull() {
+		assertNull(LiteralScanner.literalBytes(Pattern.compile("ready", Pattern.CASE_INSENSITIVE)));
+	}
+
+	@Test
+	public void givenNonAscii_whenLiteralBytes_expectNull() {
+		assertNull(LiteralScanner.literalBytes(Pattern.compile("café")));
+	}
+
+	private static boolean find(final LiteralScanner scanner, final String text) {
+		final byte[] bytes = bytes(text);
+		return scanner.find(bytes, 0, bytes.length);
+	}
+
+	private static byte[] bytes(final String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,76 @@
+package org.neverfear.jint.waitstrategy;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.Console;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+public class MultiPatternConsoleWaitStrategyTest {
+
+	private static final String OUTPUT = "starting\ncache warm\nready\n";
+
+	private Application mockApplication;
+	private SettableFuture<Integer> termination;
+	private Console mockConsole;
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	@Before
+	public void before() throws Exception {
+		this.mockConsole = mock(Console.class);
+		this.mockApplication = mock(Application.class);
+		this.termination = SettableFuture.create();
+		when(this.mockApplication.termination()).thenReturn(this.termination);
+		when(this.mockApplication.console()).thenReturn(this.mockConsole);
+		when(this.mockApplication.isRunning()).thenReturn(true);
+		when(this.mockConsole.output()).thenReturn(new ByteArrayInputStream(OUTPUT.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void givenEveryLiteralAndPatternPresent_whenInvokeWaitFor_expectSuccess() throws Exception {
+		final MultiPatternConsoleWaitStrategy subject = new MultiPatternConsoleWaitStrategy(Arrays.asList("ready",
+			"cache warm"),
+				Arrays.asList(Pattern.compile("start\\w+")));
+
+		subject.waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenOneLiteralMissing_whenInvokeWaitFor_expectApplicationException() throws Exception {
+		final MultiPatternConsoleWaitStrategy subject = new MultiPatternConsoleWaitStrategy(Arrays.asList("ready",
+			"migration done"),
+				Collections.<Pattern> emptyList());
+
+		this.expectedException.expect(ApplicationException.class);
+
+		subject.waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenApplicationExited_whenInvokeWaitFor_expectApplicationExceptionWithExitCode() throws Exception {
+		when(this.mockApplication.isRunning()).thenReturn(false);
+		when(this.mockApplication.exitCode()).thenReturn(3);
+		final MultiPatternConsoleWaitStrategy subject = new MultiPatternConsoleWaitStrategy(Arrays.asList("migration done"),
+				Collections.<Pattern> emptyList());
+
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 3");
+
+		subject.waitFor(this.mockApplication);
+	}
+}
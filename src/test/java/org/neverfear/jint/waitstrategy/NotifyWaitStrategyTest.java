@@ -0,0 +1,128 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+import org.neverfear.jint.notify.NotifyChannel;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+public class NotifyWaitStrategyTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(10));
+
+	private Application mockApplication;
+	private NotifyChannel channel;
+	private Socket firstRun;
+	private Socket secondRun;
+
+	private NotifyWaitStrategy subject;
+
+	@Before
+	public void before() throws Exception {
+		this.mockApplication = mock(Application.class);
+		when(this.mockApplication.termination()).thenReturn(SettableFuture.<Integer> create());
+
+		this.channel = NotifyChannel.open();
+		this.firstRun = connect(this.channel);
+		this.secondRun = connect(this.channel);
+
+		this.subject = new NotifyWaitStrategy(this.channel);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.firstRun.close();
+		this.secondRun.close();
+		this.channel.close();
+	}
+
+	@Test
+	public void givenReady_whenInvokeWaitForTwice_expectBothSucceed() throws Exception {
+		/*
+		 * Given
+		 */
+		ready(this.firstRun);
+
+		/*
+		 * When
+		 */
+		this.subject.waitFor(this.mockApplication,
+			1,
+			SECONDS);
+		this.subject.waitFor(this.mockApplication,
+			1,
+			SECONDS);
+	}
+
+	@Test
+	public void givenRestartedWhilePreviousRunStillConnected_whenInvokeWaitFor_expectWaitForNewRunToReportReady()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		ready(this.firstRun);
+		this.subject.waitFor(this.mockApplication,
+			1,
+			SECONDS);
+
+		// Restarted, before the first run's disconnection is noticed
+		when(this.mockApplication.termination()).thenReturn(SettableFuture.<Integer> create());
+
+		/*
+		 * When
+		 */
+		try {
+			this.subject.waitFor(this.mockApplication,
+				100,
+				MILLISECONDS);
+			fail("Waited on the previous run");
+		} catch (final ApplicationTimeoutException e) {
+			// Expected
+		}
+		ready(this.secondRun);
+
+		/*
+		 * Then
+		 */
+		this.subject.waitFor(this.mockApplication,
+			1,
+			SECONDS);
+	}
+
+	/**
+	 * Connects as an application would, see Notifier.
+	 */
+	private static Socket connect(final NotifyChannel channel) throws IOException {
+		final String address = channel.address();
+		final int separator = address.lastIndexOf(':');
+		final String host = address.substring(0, separator);
+		final int port = Integer.parseInt(address.substring(separator + 1));
+		return new Socket(host,
+				port);
+	}
+
+	private static void ready(final Socket socket) throws IOException {
+		socket.getOutputStream()
+				.write((NotifyChannel.READY + "=1\n").getBytes(StandardCharsets.UTF_8));
+		socket.getOutputStream()
+				.flush();
+	}
+}
@@ -0,0 +1,56 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PollingPolicyTest {
+
+	@Test
+	public void givenFixed_whenIntervalNanos_expectSameInterval() {
+		final PollingPolicy subject = PollingPolicy.fixed(50, MILLISECONDS);
+
+		assertEquals(0, subject.initialDelayNanos());
+		assertEquals(MILLISECONDS.toNanos(50), subject.intervalNanos(1));
+		assertEquals(MILLISECONDS.toNanos(50), subject.intervalNanos(10));
+	}
+
+	@Test
+	public void givenExponential_whenIntervalNanos_expectDoublingUpToMax() {
+		final PollingPolicy subject = PollingPolicy.exponential(10, 100, MILLISECONDS);
+
+		assertEquals(MILLISECONDS.toNanos(10), subject.intervalNanos(1));
+		assertEquals(MILLISECONDS.toNanos(20), subject.intervalNanos(2));
+		assertEquals(MILLISECONDS.toNanos(80), subject.intervalNanos(4));
+		assertEquals(MILLISECONDS.toNanos(100), subject.intervalNanos(5));
+		assertEquals(MILLISECONDS.toNanos(100), subject.intervalNanos(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void givenJitter_whenIntervalNanos_expectWithinJitterBelowInterval() {
+		final PollingPolicy subject = PollingPolicy.fixed(100, MILLISECONDS)
+				.withJitter(0.5);
+
+		for (int attempt = 1; attempt < 100; attempt++) {
+			final long actual = subject.intervalNanos(attempt);
+			assertTrue(actual <= MILLISECONDS.toNanos(100));
+			assertTrue(actual >= MILLISECONDS.toNanos(50));
+		}
+	}
+
+	@Test
+	public void givenInitialDelay_whenInitialDelayNanos_expectDelay() {
+		final PollingPolicy subject = PollingPolicy.defaultPolicy()
+				.withInitialDelay(1, MILLISECONDS);
+
+		assertEquals(MILLISECONDS.toNanos(1), subject.initialDelayNanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenFactorBelowOne_whenWithFactor_expectIllegalArgument() {
+		PollingPolicy.defaultPolicy()
+				.withFactor(0.5);
+	}
+}
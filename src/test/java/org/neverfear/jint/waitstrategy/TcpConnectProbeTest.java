@@ -0,0 +1,73 @@
+package org.neverfear.jint.waitstrategy;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+public class TcpConnectProbeTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Test
+	public void givenListening_whenConnect_expectTrue() throws Exception {
+		/*
+		 * Given
+		 */
+		try (ServerSocket server = new ServerSocket(0,
+				50,
+				InetAddress.getLoopbackAddress())) {
+
+			/*
+			 * When
+			 */
+			final boolean accepted = TcpConnectProbe.shared()
+					.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+							server.getLocalPort()))
+					.get();
+
+			/*
+			 * Then
+			 */
+			assertTrue(accepted);
+		}
+	}
+
+	@Test
+	public void givenNotListening_whenConnect_expectFalse() throws Exception {
+		/*
+		 * Given
+		 */
+		final int port = closedPort();
+
+		/*
+		 * When
+		 */
+		final boolean accepted = TcpConnectProbe.shared()
+				.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+						port))
+				.get();
+
+		/*
+		 * Then
+		 */
+		assertFalse(accepted);
+	}
+
+	static int closedPort() throws Exception {
+		try (ServerSocket server = new ServerSocket(0,
+				50,
+				InetAddress.getLoopbackAddress())) {
+			return server.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neverfear.jint.waitstrategy.TcpConnectProbeTest.closedPort;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+public class TcpPortsWaitStrategyTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private Application mockApplication;
+	private SettableFuture<Integer> termination;
+
+	@Before
+	public void before() throws Exception {
+		this.mockApplication = mock(Application.class);
+		this.termination = SettableFuture.create();
+		when(this.mockApplication.termination()).thenReturn(this.termination);
+		when(this.mockApplication.isRunning()).thenReturn(true);
+	}
+
+	@Test
+	public void givenAllListening_whenInvokeWaitFor_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		try (ServerSocket first = listen(); ServerSocket second = listen()) {
+			final TcpPortsWaitStrategy subject = new TcpPortsWaitStrategy(asList(endpoint(first.getLocalPort()),
+				endpoint(second.getLocalPort())),
+					PollingPolicy.fixed(1,
+						MILLISECONDS));
+
+			/*
+			 * When
+			 */
+			subject.waitFor(this.mockApplication);
+		}
+	}
+
+	@Test
+	public void givenSecondListensLater_whenInvokeWaitFor_expectSuccess() throws Exception {
+		/*
+		 * Given
+		 */
+		final int port = closedPort();
+		try (ServerSocket first = listen()) {
+			final TcpPortsWaitStrategy subject = new TcpPortsWaitStrategy(asList(endpoint(first.getLocalPort()),
+				endpoint(port)),
+					PollingPolicy.fixed(1,
+						MILLISECONDS));
+			final Thread listener = new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(50);
+						try (ServerSocket second = new ServerSocket(port,
+								50,
+								InetAddress.getLoopbackAddress())) {
+							Thread.sleep(1000);
+						}
+					} catch (final Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			};
+			listener.start();
+
+			/*
+			 * When
+			 */
+			subject.waitFor(this.mockApplication);
+			listener.interrupt();
+		}
+	}
+
+	@Test
+	public void givenOneNeverListens_whenInvokeWaitForWithTimeout_expectTimeoutNamingEndpoint() throws Exception {
+		/*
+		 * Given
+		 */
+		final int port = closedPort();
+		try (ServerSocket first = listen()) {
+			final TcpPortsWaitStrategy subject = new TcpPortsWaitStrategy(asList(endpoint(first.getLocalPort()),
+				endpoint(port)),
+					PollingPolicy.fixed(1,
+						MILLISECONDS));
+
+			/*
+			 * Then
+			 */
+			this.expectedException.expect(ApplicationTimeoutException.class);
+			this.expectedException.expectMessage(":" + port + "]");
+
+			/*
+			 * When
+			 */
+			subject.waitFor(this.mockApplication,
+				100,
+				MILLISECONDS);
+		}
+	}
+
+	@Test
+	public void givenApplicationExited_whenInvokeWaitFor_expectApplicationException() throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockApplication.isRunning()).thenReturn(false);
+		when(this.mockApplication.exitCode()).thenReturn(1);
+		final TcpPortsWaitStrategy subject = new TcpPortsWaitStrategy(asList(endpoint(closedPort())),
+				PollingPolicy.fixed(1,
+					MILLISECONDS));
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 1");
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication);
+	}
+
+	private static ServerSocket listen() throws Exception {
+		return new ServerSocket(0,
+				50,
+				InetAddress.getLoopbackAddress());
+	}
+
+	private static InetSocketAddress endpoint(final int port) {
+		return new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				port);
+	}
+}
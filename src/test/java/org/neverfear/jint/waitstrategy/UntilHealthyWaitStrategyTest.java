@@ -0,0 +1,223 @@
+package org.neverfear.jint.waitstrategy;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.neverfear.jint.api.Application;
+import org.neverfear.jint.api.ApplicationException;
+import org.neverfear.jint.api.ApplicationTimeoutException;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+public class UntilHealthyWaitStrategyTest {
+
+	@Rule
+	public TestRule timeout = new DisableOnDebug(Timeout.seconds(5));
+
+	@Rule
+	public ExpectedException expectedException = ExpectedException.none();
+
+	private HealthCheck mockHealthCheck;
+	private Application mockApplication;
+	private SettableFuture<Integer> termination;
+	private UntilHealthyWaitStrategy subject;
+
+	@Before
+	public void before() throws Exception {
+		this.mockHealthCheck = mock(HealthCheck.class);
+		this.mockApplication = mock(Application.class);
+		this.termination = SettableFuture.create();
+		when(this.mockApplication.termination()).thenReturn(this.termination);
+		when(this.mockApplication.isRunning()).thenReturn(true);
+
+		this.subject = new UntilHealthyWaitStrategy(this.mockHealthCheck,
+				PollingPolicy.fixed(1, MILLISECONDS));
+	}
+
+	@Test
+	public void givenHealthyOnThirdAttempt_whenInvokeWaitFor_expectThreeAttempts() throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenReturn(false, false, true);
+
+		/*
+		 * When
+		 */
+		this.subject.waitFor(this.mockApplication);
+
+		/*
+		 * Then
+		 */
+		verify(this.mockHealthCheck, times(3)).isHealthy(this.mockApplication);
+	}
+
+	@Test
+	public void givenApplicationExited_whenInvokeWaitFor_expectApplicationException() throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenReturn(false);
+		when(this.mockApplication.isRunning()).thenReturn(false);
+		when(this.mockApplication.exitCode()).thenReturn(1);
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 1");
+
+		/*
+		 * When
+		 */
+		this.subject.waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenHealthCheckFails_whenInvokeWaitFor_expectSameException() throws Exception {
+		/*
+		 * Given
+		 */
+		final ApplicationException expected = new ApplicationException("broken");
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenThrow(expected);
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(sameInstance(expected));
+
+		/*
+		 * When
+		 */
+		this.subject.waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenCurrentThreadIsInterrupted_whenInvokeWaitFor_expectInterruptedException() throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenReturn(false);
+		currentThread().interrupt();
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(InterruptedException.class);
+
+		/*
+		 * When
+		 */
+		this.subject.waitFor(this.mockApplication);
+	}
+
+	@Test
+	public void givenNeverHealthy_whenInvokeWaitForWithTimeout_expectTimeoutExceptionWithAttempts() throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenReturn(false);
+
+		/*
+		 * When
+		 */
+		ApplicationTimeoutException caught = null;
+		try {
+			this.subject.waitFor(this.mockApplication,
+				50,
+				MILLISECONDS);
+			fail("Expected timeout");
+		} catch (final ApplicationTimeoutException e) {
+			caught = e;
+		}
+
+		/*
+		 * Then
+		 */
+		assertEquals(50,
+			caught.timeout(MILLISECONDS));
+		assertFalse(caught.attemptNanos()
+				.isEmpty());
+	}
+
+	@Test
+	public void givenCloseableHealthCheck_whenInvokeWaitFor_expectClosed() throws Exception {
+		/*
+		 * Given
+		 */
+		final ClosingHealthCheck closeable = new ClosingHealthCheck();
+		final UntilHealthyWaitStrategy subject = new UntilHealthyWaitStrategy(closeable,
+				PollingPolicy.fixed(1, MILLISECONDS));
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication);
+
+		/*
+		 * Then
+		 */
+		assertTrue(closeable.closed.await(1,
+			SECONDS));
+	}
+
+	@Test
+	public void givenApplicationTerminatesWhileWaiting_whenInvokeWaitFor_expectApplicationException()
+			throws Exception {
+		/*
+		 * Given
+		 */
+		when(this.mockHealthCheck.isHealthy(any(Application.class))).thenReturn(false);
+		final UntilHealthyWaitStrategy subject = new UntilHealthyWaitStrategy(this.mockHealthCheck,
+				PollingPolicy.fixed(1, SECONDS));
+		this.termination.set(3);
+
+		/*
+		 * Then
+		 */
+		this.expectedException.expect(ApplicationException.class);
+		this.expectedException.expectMessage("code 3");
+
+		/*
+		 * When
+		 */
+		subject.waitFor(this.mockApplication);
+	}
+
+	private static final class ClosingHealthCheck
+		implements HealthCheck, Closeable {
+
+		private final CountDownLatch closed = new CountDownLatch(1);
+
+		@Override
+		public boolean isHealthy(final Application application) {
+			return true;
+		}
+
+		@Override
+		public void close() {
+			this.closed.countDown();
+		}
+	}
+}